@@ -0,0 +1,107 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A snapshot of the edges of a Graph in compressed sparse row form: the
+ *  successors of vertex v are out[outStart[v]] .. out[outStart[v + 1] - 1],
+ *  in the order the graph reports them.  Predecessors are available in the
+ *  same form (inStart and in), computed when first requested.  Arrays are
+ *  indexed directly by vertex number; numbers that are not vertices of the
+ *  graph simply have no edges.  A snapshot does not track later changes
+ *  to its graph.
+ *
+ *  Algorithms that scan edges many times, or from several threads at once,
+ *  read the snapshot rather than calling successors and predecessors.
+ *  @author Roland Li
+ */
+final class Adjacency {
+
+    /** A snapshot of the edges of G. */
+    Adjacency(Graph G) {
+        _directed = G.isDirected();
+        _maxVertex = G.maxVertex();
+        int n = _maxVertex;
+        outStart = new int[n + 2];
+        int[] targets = new int[Math.max(G.edgeSize(), 1)];
+        int m = 0;
+        for (int v = 1; v <= n; v += 1) {
+            outStart[v] = m;
+            for (int w : G.successors(v)) {
+                if (m == targets.length) {
+                    targets = Arrays.copyOf(targets, 2 * m);
+                }
+                targets[m] = w;
+                m += 1;
+            }
+        }
+        outStart[n + 1] = m;
+        out = m == targets.length ? targets : Arrays.copyOf(targets, m);
+    }
+
+    /** Returns the largest vertex number in my graph when I was made. */
+    int maxVertex() {
+        return _maxVertex;
+    }
+
+    /** Returns the number of (directed) successor entries I hold. */
+    int arcs() {
+        return out.length;
+    }
+
+    /** Returns the number of successors of V. */
+    int outDegree(int v) {
+        return outStart[v + 1] - outStart[v];
+    }
+
+    /** Returns the number of predecessors of V. */
+    int inDegree(int v) {
+        ensurePredecessors();
+        return inStart[v + 1] - inStart[v];
+    }
+
+    /** Compute inStart and in, if not yet done. */
+    void ensurePredecessors() {
+        if (in != null) {
+            return;
+        }
+        if (!_directed) {
+            inStart = outStart;
+            in = out;
+            return;
+        }
+        int n = _maxVertex;
+        int[] start = new int[n + 2];
+        for (int w : out) {
+            start[w + 1] += 1;
+        }
+        for (int v = 1; v <= n + 1; v += 1) {
+            start[v] += start[v - 1];
+        }
+        int[] next = Arrays.copyOf(start, n + 1);
+        int[] sources = new int[out.length];
+        for (int v = 1; v <= n; v += 1) {
+            for (int k = outStart[v]; k < outStart[v + 1]; k += 1) {
+                sources[next[out[k]]] = v;
+                next[out[k]] += 1;
+            }
+        }
+        inStart = start;
+        in = sources;
+    }
+
+    /** Start of the successors of each vertex in out. */
+    final int[] outStart;
+    /** Successors of all vertices, grouped by vertex. */
+    final int[] out;
+    /** Start of the predecessors of each vertex in in, once computed. */
+    int[] inStart;
+    /** Predecessors of all vertices, grouped by vertex, once computed. */
+    int[] in;
+
+    /** True iff my graph was directed. */
+    private final boolean _directed;
+    /** Largest vertex number of my graph. */
+    private final int _maxVertex;
+}
@@ -0,0 +1,335 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** The shortest distances between all pairs of vertices of a small or
+ *  medium-sized edge-weighted graph, held in a flat N x N array of
+ *  doubles, where N is the number of vertices.  Rows and columns are
+ *  indexed by the positions of vertices in increasing order (see index and
+ *  vertices).
+ *
+ *  Two methods are available.  For dense graphs, a blocked Floyd-Warshall
+ *  algorithm processes the matrix in square tiles that fit in cache,
+ *  updating the tiles of each round in parallel.  For sparse graphs,
+ *  Dijkstra's algorithm runs from every vertex, in parallel, each thread
+ *  reusing its own SearchWorkspace.  By default, the method is chosen by
+ *  comparing the estimated costs, N^3 for Floyd-Warshall and roughly
+ *  N (4E + 16 N log N) for repeated Dijkstra, with constants measured on
+ *  random graphs; for a graph of a few thousand vertices, Floyd-Warshall
+ *  wins only when about a quarter of all possible edges are present.  All
+ *  tasks run in a ForkJoinPool.
+ *
+ *  Clients supply edge weights by overriding getWeight(U, V), which is
+ *  called only on the client's thread.  Weights must be non-negative
+ *  (Floyd-Warshall would tolerate negative weights, but Dijkstra's
+ *  algorithm does not).
+ *  @author Roland Li
+ */
+public abstract class AllPairsShortestPaths {
+
+    /** Methods of computing distances. */
+    public enum Method {
+        /** Choose by density. */
+        AUTOMATIC,
+        /** Blocked Floyd-Warshall. */
+        FLOYD_WARSHALL,
+        /** Dijkstra's algorithm from each vertex. */
+        DIJKSTRA
+    }
+
+    /** All-pairs distances in G using the common ForkJoinPool. */
+    public AllPairsShortestPaths(Graph G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /** All-pairs distances in G whose tasks run in POOL. */
+    public AllPairsShortestPaths(Graph G, ForkJoinPool pool) {
+        _G = G;
+        _pool = pool;
+        _dist = new double[0];
+        _vertices = new int[0];
+        _index = new int[1];
+    }
+
+    /** Returns the weight of edge (U, V) of the graph. */
+    protected abstract double getWeight(int u, int v);
+
+    /** Compute all distances, choosing the method automatically. */
+    public void compute() {
+        compute(Method.AUTOMATIC);
+    }
+
+    /** Compute all distances by METHOD. */
+    public void compute(Method method) {
+        Adjacency adj = new Adjacency(_G);
+        int maxVertex = adj.maxVertex();
+        _index = new int[maxVertex + 1];
+        Arrays.fill(_index, -1);
+        int n = 0;
+        for (int v = 1; v <= maxVertex; v += 1) {
+            if (_G.contains(v)) {
+                n += 1;
+            }
+        }
+        _vertices = new int[n];
+        n = 0;
+        for (int v = 1; v <= maxVertex; v += 1) {
+            if (_G.contains(v)) {
+                _index[v] = n;
+                _vertices[n] = v;
+                n += 1;
+            }
+        }
+        if ((long) n * n > MAX_ENTRIES) {
+            throw new IllegalArgumentException("graph too large");
+        }
+        _n = n;
+        _dist = new double[n * n];
+        if (method == Method.AUTOMATIC) {
+            double log = Math.max(1.0, Math.log(n) / Math.log(2));
+            double dijkstra =
+                EDGE_COST * adj.arcs() + VERTEX_COST * n * log;
+            method = dijkstra >= (double) n * n
+                ? Method.FLOYD_WARSHALL : Method.DIJKSTRA;
+        }
+        _method = method;
+        double[] weight = new double[adj.out.length];
+        for (int u = 1; u <= maxVertex; u += 1) {
+            for (int e = adj.outStart[u]; e < adj.outStart[u + 1]; e += 1) {
+                weight[e] = getWeight(u, adj.out[e]);
+            }
+        }
+        if (method == Method.FLOYD_WARSHALL) {
+            floydWarshall(adj, weight);
+        } else {
+            _workspaces = new ThreadLocal<>();
+            _pool.invoke(new Rows(adj, weight, 0, n));
+            _workspaces = null;
+        }
+    }
+
+    /** Returns the method used by the last compute. */
+    public Method method() {
+        return _method;
+    }
+
+    /** Returns the distance from vertex U to vertex V, or positive infinity
+     *  if there is no path. */
+    public double distance(int u, int v) {
+        return _dist[index(u) * _n + index(v)];
+    }
+
+    /** Returns the row and column of vertex V in the matrix. */
+    public int index(int v) {
+        if (v < 1 || v >= _index.length || _index[v] < 0) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+        return _index[v];
+    }
+
+    /** Returns the vertices of the graph, in increasing order: the vertex
+     *  of each row and column of the matrix. */
+    public int[] vertices() {
+        return _vertices.clone();
+    }
+
+    /** Returns the distance matrix: the distance from the vertex of row I to
+     *  that of column J is element I * N + J, where N is the number of
+     *  vertices.  The array belongs to me and is replaced by the next
+     *  compute. */
+    public double[] matrix() {
+        return _dist;
+    }
+
+    /** Fill _dist by the blocked Floyd-Warshall algorithm, with edges given
+     *  by ADJ and weights by WEIGHT. */
+    private void floydWarshall(Adjacency adj, double[] weight) {
+        int n = _n;
+        Arrays.fill(_dist, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < n; i += 1) {
+            int u = _vertices[i];
+            _dist[i * n + i] = 0.0;
+            for (int e = adj.outStart[u]; e < adj.outStart[u + 1]; e += 1) {
+                int j = _index[adj.out[e]];
+                _dist[i * n + j] = Math.min(_dist[i * n + j], weight[e]);
+            }
+        }
+        int blocks = (n + TILE - 1) / TILE;
+        for (int kb = 0; kb < blocks; kb += 1) {
+            relaxTile(kb, kb, kb);
+            _pool.invoke(new Tiles(kb, 0, blocks, true));
+            _pool.invoke(new Tiles(kb, 0, blocks * blocks, false));
+        }
+    }
+
+    /** Relax the tile at block row IB and block column JB through the
+     *  vertices of block KB. */
+    private void relaxTile(int ib, int jb, int kb) {
+        int n = _n;
+        double[] d = _dist;
+        int iEnd = Math.min(n, (ib + 1) * TILE);
+        int jStart = jb * TILE, jEnd = Math.min(n, jStart + TILE);
+        int kEnd = Math.min(n, (kb + 1) * TILE);
+        for (int k = kb * TILE; k < kEnd; k += 1) {
+            int kRow = k * n;
+            for (int i = ib * TILE; i < iEnd; i += 1) {
+                int iRow = i * n;
+                double dik = d[iRow + k];
+                if (dik == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int j = jStart; j < jEnd; j += 1) {
+                    double w = dik + d[kRow + j];
+                    if (w < d[iRow + j]) {
+                        d[iRow + j] = w;
+                    }
+                }
+            }
+        }
+    }
+
+    /** A task relaxing some of the tiles of one round of blocked
+     *  Floyd-Warshall through block KB. */
+    private class Tiles extends RecursiveAction {
+        /** If CROSS, a task relaxing the tiles in block row and block
+         *  column KB, for blocks LO .. HI-1 of each.  Otherwise, a task
+         *  relaxing the tiles numbered LO .. HI-1 (row-major) outside that
+         *  row and column. */
+        Tiles(int kb, int lo, int hi, boolean cross) {
+            _kb = kb;
+            _lo = lo;
+            _hi = hi;
+            _cross = cross;
+        }
+
+        @Override
+        protected void compute() {
+            if (_hi - _lo > TILES_PER_TASK) {
+                int mid = (_lo + _hi) >>> 1;
+                invokeAll(new Tiles(_kb, _lo, mid, _cross),
+                          new Tiles(_kb, mid, _hi, _cross));
+                return;
+            }
+            int blocks = (_n + TILE - 1) / TILE;
+            for (int t = _lo; t < _hi; t += 1) {
+                if (_cross) {
+                    if (t != _kb) {
+                        relaxTile(_kb, t, _kb);
+                        relaxTile(t, _kb, _kb);
+                    }
+                } else {
+                    int ib = t / blocks, jb = t % blocks;
+                    if (ib != _kb && jb != _kb) {
+                        relaxTile(ib, jb, _kb);
+                    }
+                }
+            }
+        }
+
+        /** The block of intermediate vertices. */
+        private final int _kb;
+        /** Range of blocks or tiles. */
+        private final int _lo, _hi;
+        /** True iff relaxing block row and column _kb. */
+        private final boolean _cross;
+    }
+
+    /** A task filling rows of the matrix by Dijkstra's algorithm. */
+    private class Rows extends RecursiveAction {
+        /** A task filling rows LO .. HI-1, with edges given by ADJ and
+         *  weights by WEIGHT. */
+        Rows(Adjacency adj, double[] weight, int lo, int hi) {
+            _adj = adj;
+            _weight = weight;
+            _lo = lo;
+            _hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (_hi - _lo > ROWS_PER_TASK) {
+                int mid = (_lo + _hi) >>> 1;
+                invokeAll(new Rows(_adj, _weight, _lo, mid),
+                          new Rows(_adj, _weight, mid, _hi));
+                return;
+            }
+            SearchWorkspace ws = _workspaces.get();
+            if (ws == null) {
+                ws = new SearchWorkspace(_adj.maxVertex());
+                _workspaces.set(ws);
+            }
+            for (int i = _lo; i < _hi; i += 1) {
+                search(ws, i);
+            }
+        }
+
+        /** Fill row I of the matrix, using workspace WS. */
+        private void search(SearchWorkspace ws, int i) {
+            IndexedHeap queue = ws.queue;
+            int[] start = _adj.outStart, out = _adj.out;
+            int source = _vertices[i];
+            ws.reset();
+            ws.reach(source, 0.0, 0);
+            queue.put(source, 0.0);
+            while (!queue.isEmpty()) {
+                int u = queue.poll();
+                double du = ws.dist(u);
+                for (int e = start[u]; e < start[u + 1]; e += 1) {
+                    int v = out[e];
+                    double d = du + _weight[e];
+                    if (d < ws.dist(v)) {
+                        ws.reach(v, d, u);
+                        queue.put(v, d);
+                    }
+                }
+            }
+            int row = i * _n;
+            Arrays.fill(_dist, row, row + _n, Double.POSITIVE_INFINITY);
+            for (int k = 0; k < ws.touchedCount(); k += 1) {
+                int v = ws.touched(k);
+                _dist[row + _index[v]] = ws.dist(v);
+            }
+        }
+
+        /** The graph. */
+        private final Adjacency _adj;
+        /** Weights of the edges of _adj. */
+        private final double[] _weight;
+        /** Range of rows. */
+        private final int _lo, _hi;
+    }
+
+    /** Side of a tile, in vertices. */
+    private static final int TILE = 64;
+    /** Maximum number of tiles or blocks handled by one task. */
+    private static final int TILES_PER_TASK = 4;
+    /** Maximum number of rows handled by one Dijkstra task. */
+    private static final int ROWS_PER_TASK = 16;
+    /** Largest number of entries in a matrix. */
+    private static final long MAX_ENTRIES = Integer.MAX_VALUE - 8;
+    /** Approximate costs of processing one edge and of queueing one
+     *  vertex (per unit of log N) in Dijkstra's algorithm, relative to one
+     *  step of Floyd-Warshall. */
+    private static final double EDGE_COST = 4.0, VERTEX_COST = 16.0;
+
+    /** The graph. */
+    private final Graph _G;
+    /** Pool in which tasks run. */
+    private final ForkJoinPool _pool;
+    /** Number of vertices. */
+    private int _n;
+    /** The distance matrix, row-major. */
+    private double[] _dist;
+    /** The vertex of each row and column. */
+    private int[] _vertices;
+    /** The row and column of each vertex, or -1. */
+    private int[] _index;
+    /** Method used by the last compute. */
+    private Method _method;
+    /** During a Dijkstra computation, the workspace of each thread. */
+    private ThreadLocal<SearchWorkspace> _workspaces;
+}
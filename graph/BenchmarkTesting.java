@@ -0,0 +1,240 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/* This class is not part of the graph package per se: it may be removed
+ * without affecting the package. */
+
+/** Rough timings of alternative implementations of graph algorithms on
+ *  large pseudo-random graphs.  Run with
+ *      java -cp .. graph.BenchmarkTesting [ VERTICES [ DEGREE ] ]
+ *  @author Roland Li
+ */
+public class BenchmarkTesting {
+
+    /** Run all benchmarks, using the graph size given by ARGS, if any. */
+    public static void main(String... args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_N;
+        int deg = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DEG;
+        Graph g = randomGraph(n, deg, SEED);
+        System.out.printf("Graph: %d vertices, %d edges%n",
+                          g.vertexSize(), g.edgeSize());
+        benchmarkBreadthFirst(g);
+        benchmarkShortestPaths(g);
+        benchmarkAllPairs(randomGraph(Math.min(n, APSP_N), deg, SEED));
+    }
+
+    /** Compare breadth-first traversals of G. */
+    static void benchmarkBreadthFirst(final Graph g) {
+        time("BreadthFirstTraversal", new Runnable() {
+            @Override
+            public void run() {
+                new BreadthFirstTraversal(g).traverse(1);
+            }
+        });
+        time("ParallelBreadthFirstTraversal", new Runnable() {
+            @Override
+            public void run() {
+                new ParallelBreadthFirstTraversal(g).traverse(1);
+            }
+        });
+        time("DirectionOptimizingTraversal", new Runnable() {
+            @Override
+            public void run() {
+                new DirectionOptimizingTraversal(g).traverse(1);
+            }
+        });
+    }
+
+    /** Compare the queues used by ShortestPaths on G, and parallel
+     *  delta-stepping, with the integer weights given by edgeWeight. */
+    static void benchmarkShortestPaths(final Graph g) {
+        time("ShortestPaths (indexed heap)", new Runnable() {
+            @Override
+            public void run() {
+                new ArrayPaths(g, false).setPaths();
+            }
+        });
+        time("ShortestPaths (radix heap)", new Runnable() {
+            @Override
+            public void run() {
+                new ArrayPaths(g, true).setPaths();
+            }
+        });
+        time("DeltaSteppingPaths", new Runnable() {
+            @Override
+            public void run() {
+                new DeltaSteppingPaths(g, 1) {
+                    @Override
+                    protected double getWeight(int u, int v) {
+                        return edgeWeight(u, v);
+                    }
+                }.setPaths();
+            }
+        });
+    }
+
+    /** Compare the methods of AllPairsShortestPaths on G, with the
+     *  weights given by edgeWeight. */
+    static void benchmarkAllPairs(final Graph g) {
+        for (final AllPairsShortestPaths.Method method
+                 : AllPairsShortestPaths.Method.values()) {
+            time("AllPairsShortestPaths (" + method + ")", new Runnable() {
+                @Override
+                public void run() {
+                    new AllPairsShortestPaths(g) {
+                        @Override
+                        protected double getWeight(int u, int v) {
+                            return edgeWeight(u, v);
+                        }
+                    }.compute(method);
+                }
+            });
+        }
+    }
+
+    /** Print the best of several timings of BODY, labeled with NAME. */
+    static void time(String name, Runnable body) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < REPETITIONS; i += 1) {
+            long start = System.nanoTime();
+            body.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-40s %10.2f ms%n", name, best / 1e6);
+    }
+
+    /** Returns a directed graph with vertices 1 .. N in which each vertex
+     *  has DEG successors chosen pseudo-randomly from SEED. */
+    static Graph randomGraph(int n, int deg, long seed) {
+        Random r = new Random(seed);
+        ArrayList<ArrayList<Integer>> succ = new ArrayList<>(n + 1);
+        succ.add(new ArrayList<Integer>());
+        int edges = 0;
+        for (int v = 1; v <= n; v += 1) {
+            ArrayList<Integer> s = new ArrayList<>(deg);
+            for (int i = 0; i < deg; i += 1) {
+                int w = 1 + r.nextInt(n);
+                if (!s.contains(w)) {
+                    s.add(w);
+                    edges += 1;
+                }
+            }
+            succ.add(s);
+        }
+        return new ArrayGraph(succ, edges);
+    }
+
+    /** Returns the pseudo-random integer weight of edge (U, V), between 1
+     *  and MAX_WEIGHT. */
+    static double edgeWeight(int u, int v) {
+        return (u * 31L + v * 17L) % MAX_WEIGHT + 1;
+    }
+
+    /** Shortest paths from vertex 1, with weights given by edgeWeight and
+     *  results held in arrays indexed by vertex. */
+    static class ArrayPaths extends ShortestPaths {
+        /** Shortest paths in G from vertex 1, declaring the weights
+         *  integral iff INTEGRAL. */
+        ArrayPaths(Graph g, boolean integral) {
+            super(g, 1);
+            _integral = integral;
+            _weight = new double[g.maxVertex() + 1];
+            Arrays.fill(_weight, Double.POSITIVE_INFINITY);
+            _pred = new int[g.maxVertex() + 1];
+        }
+
+        @Override
+        public double getWeight(int v) {
+            return _weight[v];
+        }
+
+        @Override
+        protected void setWeight(int v, double w) {
+            _weight[v] = w;
+        }
+
+        @Override
+        public int getPredecessor(int v) {
+            return _pred[v];
+        }
+
+        @Override
+        protected void setPredecessor(int v, int u) {
+            _pred[v] = u;
+        }
+
+        @Override
+        protected double getWeight(int u, int v) {
+            return edgeWeight(u, v);
+        }
+
+        @Override
+        protected boolean integralWeights() {
+            return _integral;
+        }
+
+        /** True iff weights are declared integral. */
+        private final boolean _integral;
+        /** Vertex weights. */
+        private final double[] _weight;
+        /** Predecessors. */
+        private final int[] _pred;
+    }
+
+    /** A fixed directed graph whose successor lists are given in advance,
+     *  avoiding the cost of building a large DirectedGraph edge by edge. */
+    static class ArrayGraph extends DirectedGraph {
+        /** A graph in which SUCC.get(v) are the successors of v, for
+         *  v = 1 .. SUCC.size() - 1, having EDGES edges in all. */
+        ArrayGraph(ArrayList<ArrayList<Integer>> succ, int edges) {
+            _succ = succ;
+            _edges = edges;
+        }
+
+        @Override
+        public int maxVertex() {
+            return _succ.size() - 1;
+        }
+
+        @Override
+        public int vertexSize() {
+            return _succ.size() - 1;
+        }
+
+        @Override
+        public int edgeSize() {
+            return _edges;
+        }
+
+        @Override
+        public boolean contains(int v) {
+            return v >= 1 && v < _succ.size();
+        }
+
+        @Override
+        public Iteration<Integer> successors(int v) {
+            return Iteration.iteration(_succ.get(v));
+        }
+
+        /** Successor lists. */
+        private final ArrayList<ArrayList<Integer>> _succ;
+        /** Number of edges. */
+        private final int _edges;
+    }
+
+    /** Default number of vertices. */
+    static final int DEFAULT_N = 1000000;
+    /** Default out-degree. */
+    static final int DEFAULT_DEG = 8;
+    /** Seed for random graphs. */
+    static final long SEED = 61;
+    /** Maximum number of vertices in all-pairs benchmarks. */
+    static final int APSP_N = 2000;
+    /** Largest edge weight in shortest-path benchmarks. */
+    static final int MAX_WEIGHT = 100;
+    /** Number of times each benchmark is run. */
+    static final int REPETITIONS = 5;
+}
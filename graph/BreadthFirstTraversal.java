@@ -2,8 +2,6 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.ArrayDeque;
-
 /** Implements a breadth-first traversal of a graph.  Generally, the
  *  client will extend this class, overriding the visit method as desired
  *  (by default, it does nothing).
@@ -13,7 +11,13 @@ public class BreadthFirstTraversal extends Traversal {
 
     /** A breadth-first Traversal of G. */
     protected BreadthFirstTraversal(Graph G) {
-        super(G, new ArrayDeque<Integer>());
+        this(G, false);
+    }
+
+    /** A breadth-first Traversal of G whose marks are epoch stamps iff
+     *  STAMPED (see Traversal). */
+    protected BreadthFirstTraversal(Graph G, boolean stamped) {
+        super(G, Fringe.queue(), stamped);
     }
 
     @Override
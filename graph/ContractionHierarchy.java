@@ -0,0 +1,486 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** A contraction hierarchy for answering many shortest-path queries on a
+ *  fixed edge-weighted graph.  Preprocessing (preprocess) contracts the
+ *  vertices one at a time, in order of increasing importance: contracting
+ *  V removes it from the remaining graph and, for each pair of remaining
+ *  neighbors U and W whose shortest path ran through V, adds a shortcut
+ *  edge (U, W) with the weight of the path U, V, W.  The rank of a vertex
+ *  is its position in this order.  Importance is estimated by the edge
+ *  difference (shortcuts added less edges removed) plus the number of
+ *  neighbors already contracted, and is updated lazily.  A shortcut is
+ *  omitted when a limited local search (the witness search) finds a path
+ *  from U to W avoiding V that is no longer.
+ *
+ *  A query from S to T is then a bidirectional Dijkstra search that uses
+ *  only edges (original or shortcut) leading to vertices of higher rank:
+ *  forward from S, and backward from T.  Such searches settle few
+ *  vertices, and every shortest path has a counterpart that rises from S
+ *  and falls to T.  Shortcuts in the result are unpacked into the
+ *  original edges, so that paths are sequences of vertices joined by edges
+ *  of the graph.
+ *
+ *  Clients supply edge weights by overriding getWeight(U, V).  Weights
+ *  must be non-negative, and neither the graph nor its weights may change
+ *  after preprocessing.
+ *  @author Roland Li
+ */
+public abstract class ContractionHierarchy {
+
+    /** A contraction hierarchy for G, which must be preprocessed before
+     *  use. */
+    public ContractionHierarchy(Graph G) {
+        _G = G;
+    }
+
+    /** Returns the weight of edge (U, V) of the graph. */
+    protected abstract double getWeight(int u, int v);
+
+    /** Contract all vertices of the graph, adding shortcuts, and prepare
+     *  for queries.  Must be called before distance or path. */
+    public void preprocess() {
+        Adjacency adj = new Adjacency(_G);
+        int n = adj.maxVertex();
+        int arcs = adj.arcs();
+        _n = n;
+        _from = new int[Math.max(2 * arcs, 1)];
+        _to = new int[_from.length];
+        _weight = new double[_from.length];
+        _first = new int[_from.length];
+        _second = new int[_from.length];
+        _edges = 0;
+        _outEdges = new int[n + 1][];
+        _outSize = new int[n + 1];
+        _inEdges = new int[n + 1][];
+        _inSize = new int[n + 1];
+        for (int v = 0; v <= n; v += 1) {
+            _outEdges[v] = new int[INIT_LIST];
+            _inEdges[v] = new int[INIT_LIST];
+        }
+        for (int u = 1; u <= n; u += 1) {
+            for (int e = adj.outStart[u]; e < adj.outStart[u + 1]; e += 1) {
+                int v = adj.out[e];
+                if (u != v) {
+                    addEdge(u, v, getWeight(u, v), -1, -1);
+                }
+            }
+        }
+        _originalEdges = _edges;
+
+        _contracted = new boolean[n + 1];
+        _rank = new int[n + 1];
+        _wdist = new double[n + 1];
+        Arrays.fill(_wdist, Double.POSITIVE_INFINITY);
+        _touched = new int[n + 1];
+        _wqueue = new IndexedHeap(n);
+        contractAll();
+        buildUpwardGraph();
+
+        _fdist = new double[n + 1];
+        _bdist = new double[n + 1];
+        Arrays.fill(_fdist, Double.POSITIVE_INFINITY);
+        Arrays.fill(_bdist, Double.POSITIVE_INFINITY);
+        _fedge = new int[n + 1];
+        _bedge = new int[n + 1];
+        _ftouched = new int[n + 1];
+        _btouched = new int[n + 1];
+        _forward = new IndexedHeap(n);
+        _backward = new IndexedHeap(n);
+        _wdist = null;
+        _touched = null;
+        _wqueue = null;
+        _contracted = null;
+        _outEdges = _inEdges = null;
+        _outSize = _inSize = null;
+    }
+
+    /** Returns the weight of a shortest path from S to T, or positive
+     *  infinity if there is none. */
+    public double distance(int s, int t) {
+        search(s, t);
+        return _best;
+    }
+
+    /** Returns the vertices of a shortest path from S to T, starting with
+     *  S and ending with T, each joined to the next by an edge of the
+     *  graph.  If T is S or cannot be reached from S, returns the list
+     *  containing only S. */
+    public List<Integer> path(int s, int t) {
+        search(s, t);
+        ArrayList<Integer> result = new ArrayList<>();
+        result.add(s);
+        if (_meet == 0 || s == t) {
+            return result;
+        }
+        int[] upward = new int[_fcount];
+        int k = 0;
+        for (int v = _meet; v != s; v = _from[_fedge[v]]) {
+            upward[k] = _fedge[v];
+            k += 1;
+        }
+        int[] stack = new int[INIT_LIST];
+        for (int i = k - 1; i >= 0; i -= 1) {
+            stack = unpack(upward[i], stack, result);
+        }
+        for (int v = _meet; v != t; v = _to[_bedge[v]]) {
+            stack = unpack(_bedge[v], stack, result);
+        }
+        return result;
+    }
+
+    /** Returns the number of shortcuts added by preprocessing. */
+    public int shortcutCount() {
+        return _edges - _originalEdges;
+    }
+
+    /** Returns the rank of vertex V (its position, from 0, in the order of
+     *  contraction). */
+    public int rank(int v) {
+        return _rank[v];
+    }
+
+    /** Returns the number of vertices settled by the last query. */
+    public int settledCount() {
+        return _settled;
+    }
+
+    /** Add an edge (U, V) of weight W to the remaining graph, which is a
+     *  shortcut for edges FIRST and SECOND, or an original edge if they
+     *  are -1. */
+    private void addEdge(int u, int v, double w, int first, int second) {
+        if (_edges == _from.length) {
+            int n = 2 * _edges;
+            _from = Arrays.copyOf(_from, n);
+            _to = Arrays.copyOf(_to, n);
+            _weight = Arrays.copyOf(_weight, n);
+            _first = Arrays.copyOf(_first, n);
+            _second = Arrays.copyOf(_second, n);
+        }
+        int e = _edges;
+        _edges += 1;
+        _from[e] = u;
+        _to[e] = v;
+        _weight[e] = w;
+        _first[e] = first;
+        _second[e] = second;
+        if (_outSize[u] == _outEdges[u].length) {
+            _outEdges[u] = Arrays.copyOf(_outEdges[u], 2 * _outSize[u]);
+        }
+        _outEdges[u][_outSize[u]] = e;
+        _outSize[u] += 1;
+        if (_inSize[v] == _inEdges[v].length) {
+            _inEdges[v] = Arrays.copyOf(_inEdges[v], 2 * _inSize[v]);
+        }
+        _inEdges[v][_inSize[v]] = e;
+        _inSize[v] += 1;
+    }
+
+    /** Contract every vertex, in order of increasing priority. */
+    private void contractAll() {
+        int[] deleted = new int[_n + 1];
+        IndexedHeap order = new IndexedHeap(_n);
+        for (int v = 1; v <= _n; v += 1) {
+            if (_G.contains(v)) {
+                order.put(v, contract(v, true) + deleted[v]);
+            }
+        }
+        int rank = 0;
+        while (!order.isEmpty()) {
+            int v = order.poll();
+            double p = contract(v, true) + deleted[v];
+            if (!order.isEmpty() && p > order.key(order.peek())) {
+                order.put(v, p);
+                continue;
+            }
+            contract(v, false);
+            _contracted[v] = true;
+            _rank[v] = rank;
+            rank += 1;
+            for (int i = 0; i < _outSize[v]; i += 1) {
+                deleted[_to[_outEdges[v][i]]] += 1;
+            }
+            for (int i = 0; i < _inSize[v]; i += 1) {
+                deleted[_from[_inEdges[v][i]]] += 1;
+            }
+        }
+    }
+
+    /** Find the shortcuts needed to contract V, adding them unless
+     *  SIMULATE.  Returns the edge difference: the number of shortcuts
+     *  less the number of remaining edges incident on V. */
+    private int contract(int v, boolean simulate) {
+        int removed = 0;
+        double maxOut = 0.0;
+        for (int i = 0; i < _outSize[v]; i += 1) {
+            int e = _outEdges[v][i];
+            if (!_contracted[_to[e]]) {
+                removed += 1;
+                maxOut = Math.max(maxOut, _weight[e]);
+            }
+        }
+        int shortcuts = 0;
+        int ins = _inSize[v];
+        for (int i = 0; i < ins; i += 1) {
+            int ein = _inEdges[v][i];
+            int u = _from[ein];
+            if (_contracted[u]) {
+                continue;
+            }
+            removed += 1;
+            witnessSearch(u, v, _weight[ein] + maxOut);
+            for (int j = 0; j < _outSize[v]; j += 1) {
+                int eout = _outEdges[v][j];
+                int w = _to[eout];
+                double d = _weight[ein] + _weight[eout];
+                if (w != u && !_contracted[w] && _wdist[w] > d) {
+                    shortcuts += 1;
+                    if (!simulate) {
+                        addEdge(u, w, d, ein, eout);
+                    }
+                }
+            }
+        }
+        return shortcuts - removed;
+    }
+
+    /** Set _wdist to the distances from SOURCE in the remaining graph
+     *  without vertex EXCLUDED, as far as LIMIT or WITNESS_SETTLE_LIMIT
+     *  settled vertices, whichever comes first.  Vertices not reached
+     *  have distance positive infinity. */
+    private void witnessSearch(int source, int excluded, double limit) {
+        for (int i = 0; i < _touchedCount; i += 1) {
+            _wdist[_touched[i]] = Double.POSITIVE_INFINITY;
+        }
+        _wqueue.clear();
+        _touchedCount = 0;
+        _wdist[source] = 0.0;
+        _touched[_touchedCount++] = source;
+        _wqueue.put(source, 0.0);
+        int settled = 0;
+        while (!_wqueue.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+            int u = _wqueue.poll();
+            double du = _wdist[u];
+            if (du > limit) {
+                break;
+            }
+            settled += 1;
+            for (int i = 0; i < _outSize[u]; i += 1) {
+                int e = _outEdges[u][i];
+                int w = _to[e];
+                double d = du + _weight[e];
+                if (w != excluded && !_contracted[w] && d < _wdist[w]) {
+                    if (_wdist[w] == Double.POSITIVE_INFINITY) {
+                        _touched[_touchedCount++] = w;
+                    }
+                    _wdist[w] = d;
+                    _wqueue.put(w, d);
+                }
+            }
+        }
+    }
+
+    /** Gather the edges leading to higher-ranked vertices into the
+     *  compressed arrays used by queries. */
+    private void buildUpwardGraph() {
+        _upOutStart = new int[_n + 2];
+        _upInStart = new int[_n + 2];
+        for (int e = 0; e < _edges; e += 1) {
+            if (_rank[_from[e]] < _rank[_to[e]]) {
+                _upOutStart[_from[e] + 1] += 1;
+            } else {
+                _upInStart[_to[e] + 1] += 1;
+            }
+        }
+        for (int v = 1; v <= _n + 1; v += 1) {
+            _upOutStart[v] += _upOutStart[v - 1];
+            _upInStart[v] += _upInStart[v - 1];
+        }
+        _upOut = new int[_upOutStart[_n + 1]];
+        _upIn = new int[_upInStart[_n + 1]];
+        int[] outNext = Arrays.copyOf(_upOutStart, _n + 1);
+        int[] inNext = Arrays.copyOf(_upInStart, _n + 1);
+        for (int e = 0; e < _edges; e += 1) {
+            if (_rank[_from[e]] < _rank[_to[e]]) {
+                _upOut[outNext[_from[e]]++] = e;
+            } else {
+                _upIn[inNext[_to[e]]++] = e;
+            }
+        }
+    }
+
+    /** Run a query from S to T, setting _best to the weight of a shortest
+     *  path and _meet to its highest-ranked vertex (0 if none), with the
+     *  path given by _fedge from S to _meet and _bedge from _meet to T. */
+    private void search(int s, int t) {
+        if (_fdist == null) {
+            throw new IllegalStateException("hierarchy not preprocessed");
+        }
+        if (s < 1 || s > _n || t < 1 || t > _n) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+        for (int i = 0; i < _fcount; i += 1) {
+            _fdist[_ftouched[i]] = Double.POSITIVE_INFINITY;
+        }
+        for (int i = 0; i < _bcount; i += 1) {
+            _bdist[_btouched[i]] = Double.POSITIVE_INFINITY;
+        }
+        _forward.clear();
+        _backward.clear();
+        _fcount = _bcount = _settled = 0;
+        _best = Double.POSITIVE_INFINITY;
+        _meet = 0;
+
+        _fdist[s] = 0.0;
+        _ftouched[_fcount++] = s;
+        _forward.put(s, 0.0);
+        _bdist[t] = 0.0;
+        _btouched[_bcount++] = t;
+        _backward.put(t, 0.0);
+        while (true) {
+            boolean fwd = !_forward.isEmpty()
+                && _forward.key(_forward.peek()) < _best;
+            boolean bwd = !_backward.isEmpty()
+                && _backward.key(_backward.peek()) < _best;
+            if (!fwd && !bwd) {
+                break;
+            }
+            _settled += 1;
+            if (fwd && (!bwd || _forward.key(_forward.peek())
+                                <= _backward.key(_backward.peek()))) {
+                int u = _forward.poll();
+                double du = _fdist[u];
+                if (du + _bdist[u] < _best) {
+                    _best = du + _bdist[u];
+                    _meet = u;
+                }
+                for (int i = _upOutStart[u]; i < _upOutStart[u + 1]; i += 1) {
+                    int e = _upOut[i];
+                    int v = _to[e];
+                    double d = du + _weight[e];
+                    if (d < _fdist[v]) {
+                        if (_fdist[v] == Double.POSITIVE_INFINITY) {
+                            _ftouched[_fcount++] = v;
+                        }
+                        _fdist[v] = d;
+                        _fedge[v] = e;
+                        _forward.put(v, d);
+                    }
+                }
+            } else {
+                int u = _backward.poll();
+                double du = _bdist[u];
+                if (du + _fdist[u] < _best) {
+                    _best = du + _fdist[u];
+                    _meet = u;
+                }
+                for (int i = _upInStart[u]; i < _upInStart[u + 1]; i += 1) {
+                    int e = _upIn[i];
+                    int v = _from[e];
+                    double d = du + _weight[e];
+                    if (d < _bdist[v]) {
+                        if (_bdist[v] == Double.POSITIVE_INFINITY) {
+                            _btouched[_bcount++] = v;
+                        }
+                        _bdist[v] = d;
+                        _bedge[v] = e;
+                        _backward.put(v, d);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Append to RESULT the vertices after the first of the original
+     *  edges represented by edge E, using STACK (which may be replaced by
+     *  a larger array) as a work stack.  Returns the stack. */
+    private int[] unpack(int e, int[] stack, List<Integer> result) {
+        int sp = 0;
+        stack[sp++] = e;
+        while (sp > 0) {
+            int f = stack[--sp];
+            if (_first[f] < 0) {
+                result.add(_to[f]);
+            } else {
+                if (sp + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * stack.length);
+                }
+                stack[sp++] = _second[f];
+                stack[sp++] = _first[f];
+            }
+        }
+        return stack;
+    }
+
+    /** Initial length of growable lists. */
+    private static final int INIT_LIST = 4;
+    /** Maximum number of vertices settled by one witness search. */
+    private static final int WITNESS_SETTLE_LIMIT = 64;
+
+    /** The graph. */
+    private final Graph _G;
+    /** Largest vertex number of the graph. */
+    private int _n;
+
+    /** Start and end of each edge (original or shortcut). */
+    private int[] _from, _to;
+    /** Weight of each edge. */
+    private double[] _weight;
+    /** The two edges a shortcut replaces, or -1 for original edges. */
+    private int[] _first, _second;
+    /** Number of edges. */
+    private int _edges;
+    /** Number of original edges. */
+    private int _originalEdges;
+    /** Rank of each vertex. */
+    private int[] _rank;
+
+    /** During preprocessing, the edges leaving each vertex. */
+    private int[][] _outEdges;
+    /** During preprocessing, the number of edges in each _outEdges. */
+    private int[] _outSize;
+    /** During preprocessing, the edges entering each vertex. */
+    private int[][] _inEdges;
+    /** During preprocessing, the number of edges in each _inEdges. */
+    private int[] _inSize;
+    /** During preprocessing, true for each contracted vertex. */
+    private boolean[] _contracted;
+    /** Distances found by the last witness search. */
+    private double[] _wdist;
+    /** Vertices given finite _wdist by the last witness search. */
+    private int[] _touched;
+    /** Number of vertices in _touched. */
+    private int _touchedCount;
+    /** Queue for witness searches. */
+    private IndexedHeap _wqueue;
+
+    /** Edges to higher-ranked vertices, grouped by starting vertex, with
+     *  those of vertex V at _upOut[_upOutStart[V] .. _upOutStart[V+1]-1].
+     */
+    private int[] _upOut, _upOutStart;
+    /** Edges from higher-ranked vertices, grouped by ending vertex, with
+     *  those of vertex V at _upIn[_upInStart[V] .. _upInStart[V+1]-1]. */
+    private int[] _upIn, _upInStart;
+
+    /** Distances from the source and to the target in the last query. */
+    private double[] _fdist, _bdist;
+    /** Edges by which each vertex was reached in the last query. */
+    private int[] _fedge, _bedge;
+    /** Vertices with finite _fdist and _bdist. */
+    private int[] _ftouched, _btouched;
+    /** Number of vertices in _ftouched and _btouched. */
+    private int _fcount, _bcount;
+    /** Query queues. */
+    private IndexedHeap _forward, _backward;
+    /** Weight of the path found by the last query. */
+    private double _best;
+    /** Highest-ranked vertex on the path found by the last query, or 0. */
+    private int _meet;
+    /** Vertices settled by the last query. */
+    private int _settled;
+}
@@ -0,0 +1,430 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** All shortest paths from a source vertex, computed in parallel by the
+ *  delta-stepping algorithm of Meyer and Sanders.  Tentative distances
+ *  are grouped into buckets of width delta.  The lowest non-empty bucket
+ *  is settled by repeated parallel phases relaxing only the light edges
+ *  (those weighing at most delta) of the vertices in it, after which the
+ *  heavy edges of all vertices settled in the bucket are relaxed once.
+ *  (Heavy edges can reach back into the same bucket only through
+ *  rounding, in which case the bucket is simply processed again.)
+ *
+ *  The vertices are divided among a number of owners, each of which
+ *  alone updates the distances, predecessors, and buckets of its own
+ *  vertices.  In each phase, one task per owner scans the edges of its
+ *  frontier vertices and posts a relaxation request to the owner of each
+ *  target; a second round of tasks then has each owner apply the requests
+ *  addressed to it.  No locks or atomic operations are needed, and the
+ *  results for a given pool are deterministic.
+ *
+ *  setPaths fills the same weights and predecessors as SimpleShortestPaths
+ *  (though among paths of equal weight, the choice may differ).  Paths to
+ *  a single destination, heuristic estimates, and bidirectional search do
+ *  not apply here.  Clients supply edge weights by overriding
+ *  getWeight(U, V), which is called only on the client's thread.  Weights
+ *  must be non-negative.
+ *  @author Roland Li
+ */
+public abstract class DeltaSteppingPaths extends SimpleShortestPaths {
+
+    /** The shortest paths in G from SOURCE, computed in the common
+     *  ForkJoinPool. */
+    public DeltaSteppingPaths(Graph G, int source) {
+        this(G, source, ForkJoinPool.commonPool());
+    }
+
+    /** The shortest paths in G from SOURCE, computed in POOL. */
+    public DeltaSteppingPaths(Graph G, int source, ForkJoinPool pool) {
+        super(G, source);
+        _pool = pool;
+        _owners = OWNERS_PER_THREAD * pool.getParallelism();
+    }
+
+    /** Use buckets of width DELTA, which must be positive, in subsequent
+     *  searches.  By default (or if DELTA is 0), the width is the largest
+     *  edge weight divided by the average out-degree. */
+    public void setDelta(double delta) {
+        if (delta < 0 || Double.isNaN(delta)) {
+            throw new IllegalArgumentException("bad bucket width");
+        }
+        _requestedDelta = delta;
+    }
+
+    /** Returns the bucket width used by the last setPaths. */
+    public double delta() {
+        return _delta;
+    }
+
+    /** Returns the number of buckets settled by the last setPaths. */
+    public long bucketCount() {
+        return _buckets;
+    }
+
+    /** Returns the number of parallel phases run by the last setPaths. */
+    public long phaseCount() {
+        return _phases;
+    }
+
+    @Override
+    public void setPaths() {
+        SearchWorkspace ws = workspace();
+        ws.ensureCapacity(_G.maxVertex());
+        ws.reset();
+        snapshot();
+        int n = _maxVertex;
+        _dist = new double[n + 1];
+        Arrays.fill(_dist, INF);
+        _pred = new int[n + 1];
+        _stamp = new long[n + 1];
+        _settledIn = new long[n + 1];
+        Arrays.fill(_settledIn, -1);
+        _parts = new Owner[_owners];
+        for (int o = 0; o < _owners; o += 1) {
+            _parts[o] = new Owner();
+        }
+        _buckets = _phases = 0;
+
+        int source = getSource();
+        _dist[source] = 0.0;
+        _parts[owner(source)].bucket(0).add(source);
+        long current = 0;
+        while (current >= 0) {
+            _current = current;
+            do {
+                while (bucketOccupied(current)) {
+                    _phases += 1;
+                    _pool.invoke(new Step(LIGHT, 0, _owners));
+                    _pool.invoke(new Step(APPLY, 0, _owners));
+                }
+                _phases += 1;
+                _pool.invoke(new Step(HEAVY, 0, _owners));
+                _pool.invoke(new Step(APPLY, 0, _owners));
+            } while (bucketOccupied(current));
+            _buckets += 1;
+            current = nextBucket(current);
+        }
+
+        for (int v = 1; v <= n; v += 1) {
+            if (_dist[v] != INF) {
+                setWeight(v, _dist[v]);
+                setPredecessor(v, _pred[v]);
+            }
+        }
+        _dist = null;
+        _pred = null;
+        _stamp = _settledIn = null;
+        _parts = null;
+        _start = _target = _lightEnd = null;
+        _weight = null;
+    }
+
+    /** Take a snapshot of the graph and its weights, with the light edges
+     *  of each vertex before its heavy ones, and choose the bucket
+     *  width. */
+    private void snapshot() {
+        Adjacency adj = new Adjacency(_G);
+        int n = _maxVertex = adj.maxVertex();
+        int m = adj.out.length;
+        _start = adj.outStart;
+        _target = new int[m];
+        _weight = new double[m];
+        _lightEnd = new int[n + 1];
+        double[] w = new double[m];
+        double maxWeight = 0.0;
+        for (int u = 1; u <= n; u += 1) {
+            for (int e = _start[u]; e < _start[u + 1]; e += 1) {
+                w[e] = getWeight(u, adj.out[e]);
+                if (w[e] < INF) {
+                    maxWeight = Math.max(maxWeight, w[e]);
+                }
+            }
+        }
+        double delta = _requestedDelta;
+        if (delta == 0.0) {
+            int vertices = 0;
+            for (int v = 1; v <= n; v += 1) {
+                if (_G.contains(v)) {
+                    vertices += 1;
+                }
+            }
+            delta = maxWeight * Math.max(vertices, 1) / Math.max(m, 1);
+        }
+        delta = Math.max(delta, maxWeight / MAX_BUCKETS);
+        if (delta == 0.0) {
+            delta = 1.0;
+        }
+        _delta = delta;
+        _slots = (int) (maxWeight / delta) + 2;
+        for (int u = 1; u <= n; u += 1) {
+            int light = _start[u], heavy = _start[u + 1];
+            for (int e = _start[u]; e < _start[u + 1]; e += 1) {
+                int k;
+                if (w[e] <= delta) {
+                    k = light;
+                    light += 1;
+                } else {
+                    heavy -= 1;
+                    k = heavy;
+                }
+                _target[k] = adj.out[e];
+                _weight[k] = w[e];
+            }
+            _lightEnd[u] = light;
+        }
+    }
+
+    /** Returns the owner of vertex V. */
+    private int owner(int v) {
+        return v % _owners;
+    }
+
+    /** Returns the number of the bucket for distance D. */
+    private long bucketOf(double d) {
+        return (long) (d / _delta);
+    }
+
+    /** Returns true iff some owner has entries in bucket B. */
+    private boolean bucketOccupied(long b) {
+        int slot = (int) (b % _slots);
+        for (Owner part : _parts) {
+            if (part.buckets[slot] != null && part.buckets[slot].size > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns the number of the first occupied bucket after B, or -1 if
+     *  there is none.  All occupied buckets lie within _slots of B. */
+    private long nextBucket(long b) {
+        for (long c = b + 1; c < b + _slots; c += 1) {
+            if (bucketOccupied(c)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /** A growable list of ints. */
+    private static class IntList {
+        /** Append X. */
+        void add(int x) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, 2 * size);
+            }
+            items[size] = x;
+            size += 1;
+        }
+
+        /** The items, in elements 0 .. size-1. */
+        private int[] items = new int[INIT_LIST_SIZE];
+        /** Number of items. */
+        private int size;
+    }
+
+    /** Relaxation requests posted by one owner to another. */
+    private static class Requests {
+        /** Request that V's distance become D via predecessor U. */
+        void add(int v, double d, int u) {
+            if (size == vertices.length) {
+                vertices = Arrays.copyOf(vertices, 2 * size);
+                dists = Arrays.copyOf(dists, 2 * size);
+                preds = Arrays.copyOf(preds, 2 * size);
+            }
+            vertices[size] = v;
+            dists[size] = d;
+            preds[size] = u;
+            size += 1;
+        }
+
+        /** Targets of requests. */
+        private int[] vertices = new int[INIT_LIST_SIZE];
+        /** Proposed distances. */
+        private double[] dists = new double[INIT_LIST_SIZE];
+        /** Proposed predecessors. */
+        private int[] preds = new int[INIT_LIST_SIZE];
+        /** Number of requests. */
+        private int size;
+    }
+
+    /** The state belonging to one owner. */
+    private class Owner {
+        /** An owner with empty buckets and no requests. */
+        Owner() {
+            buckets = new IntList[_slots];
+            outbox = new Requests[_owners];
+            for (int o = 0; o < _owners; o += 1) {
+                outbox[o] = new Requests();
+            }
+            frontier = new IntList();
+            settled = new IntList();
+        }
+
+        /** Returns the list for bucket B, creating it if needed. */
+        IntList bucket(long b) {
+            int slot = (int) (b % _slots);
+            if (buckets[slot] == null) {
+                buckets[slot] = new IntList();
+            }
+            return buckets[slot];
+        }
+
+        /** Move the vertices that currently belong in bucket _current from
+         *  my list for it to my frontier, omitting duplicates, and add
+         *  those not yet settled in this bucket to my settled list. */
+        void extract() {
+            IntList b = bucket(_current);
+            frontier.size = 0;
+            for (int i = 0; i < b.size; i += 1) {
+                int v = b.items[i];
+                if (bucketOf(_dist[v]) == _current && _stamp[v] != _phases) {
+                    _stamp[v] = _phases;
+                    frontier.add(v);
+                    if (_settledIn[v] != _current) {
+                        _settledIn[v] = _current;
+                        settled.add(v);
+                    }
+                }
+            }
+            b.size = 0;
+        }
+
+        /** Post requests along the light edges (if LIGHT) or the heavy
+         *  edges of each vertex in VERTICES. */
+        void relax(IntList vertices, boolean light) {
+            for (int i = 0; i < vertices.size; i += 1) {
+                int u = vertices.items[i];
+                double du = _dist[u];
+                int first = light ? _start[u] : _lightEnd[u],
+                    end = light ? _lightEnd[u] : _start[u + 1];
+                for (int e = first; e < end; e += 1) {
+                    int v = _target[e];
+                    double d = du + _weight[e];
+                    if (d < _dist[v]) {
+                        outbox[owner(v)].add(v, d, u);
+                    }
+                }
+            }
+        }
+
+        /** Apply the requests addressed to me, owner number ME, by all
+         *  owners, and clear them. */
+        void apply(int me) {
+            for (Owner from : _parts) {
+                Requests r = from.outbox[me];
+                for (int i = 0; i < r.size; i += 1) {
+                    int v = r.vertices[i];
+                    double d = r.dists[i];
+                    if (d < _dist[v]) {
+                        _dist[v] = d;
+                        _pred[v] = r.preds[i];
+                        bucket(bucketOf(d)).add(v);
+                    }
+                }
+                r.size = 0;
+            }
+        }
+
+        /** My buckets, cyclically indexed by bucket number. */
+        private final IntList[] buckets;
+        /** Requests I have posted, by owner addressed. */
+        private final Requests[] outbox;
+        /** Vertices of the current phase. */
+        private final IntList frontier;
+        /** Vertices settled in the current bucket. */
+        private final IntList settled;
+    }
+
+    /** A task performing one step of a phase for some of the owners. */
+    private class Step extends RecursiveAction {
+        /** A task performing step KIND (LIGHT, HEAVY, or APPLY) for owners
+         *  LO .. HI-1. */
+        Step(int kind, int lo, int hi) {
+            _kind = kind;
+            _lo = lo;
+            _hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (_hi - _lo > 1) {
+                int mid = (_lo + _hi) >>> 1;
+                invokeAll(new Step(_kind, _lo, mid),
+                          new Step(_kind, mid, _hi));
+                return;
+            }
+            Owner part = _parts[_lo];
+            switch (_kind) {
+            case LIGHT:
+                part.extract();
+                part.relax(part.frontier, true);
+                break;
+            case HEAVY:
+                part.relax(part.settled, false);
+                part.settled.size = 0;
+                break;
+            default:
+                part.apply(_lo);
+                break;
+            }
+        }
+
+        /** The step to perform. */
+        private final int _kind;
+        /** Range of owners. */
+        private final int _lo, _hi;
+    }
+
+    /** Kinds of Step. */
+    private static final int LIGHT = 0, HEAVY = 1, APPLY = 2;
+    /** Number of owners per thread of the pool. */
+    private static final int OWNERS_PER_THREAD = 4;
+    /** Largest number of buckets spanned by one edge. */
+    private static final int MAX_BUCKETS = 1 << 16;
+    /** Initial capacity of lists. */
+    private static final int INIT_LIST_SIZE = 16;
+    /** Positive infinity. */
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    /** Pool in which steps run. */
+    private final ForkJoinPool _pool;
+    /** Number of owners. */
+    private final int _owners;
+    /** Bucket width requested by setDelta, or 0 for the default. */
+    private double _requestedDelta;
+    /** Bucket width of the last search. */
+    private double _delta;
+    /** Counts of buckets and phases of the last search. */
+    private long _buckets, _phases;
+
+    /** During a search, the largest vertex number of the snapshot. */
+    private int _maxVertex;
+    /** During a search, the first edge of each vertex (see Adjacency). */
+    private int[] _start;
+    /** During a search, the target of each edge. */
+    private int[] _target;
+    /** During a search, the end of the light edges of each vertex. */
+    private int[] _lightEnd;
+    /** During a search, the weight of each edge. */
+    private double[] _weight;
+    /** During a search, the number of buckets in each owner's cycle. */
+    private int _slots;
+    /** During a search, tentative distances, indexed by vertex. */
+    private double[] _dist;
+    /** During a search, tentative predecessors, indexed by vertex. */
+    private int[] _pred;
+    /** During a search, the last phase whose frontier held each vertex. */
+    private long[] _stamp;
+    /** During a search, the last bucket in which each vertex settled. */
+    private long[] _settledIn;
+    /** During a search, the state of each owner. */
+    private Owner[] _parts;
+    /** During a search, the bucket being settled. */
+    private long _current;
+}
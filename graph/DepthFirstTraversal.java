@@ -2,20 +2,90 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.ArrayDeque;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Collection;
 
 /** Implements a depth-first traversal of a graph.  Generally, the
  *  client will extend this class, overriding the visit and
  *  postVisit methods, as desired (by default, they do nothing).
+ *
+ *  Each vertex is visited when first reached and post-visited once
+ *  everything reachable through it has been traversed.  Rather than
+ *  recursing, the traversal keeps an explicit stack of frames, each holding
+ *  a vertex and a cursor into its successors, so that it takes time
+ *  O(V + E) and is not limited in depth by the Java stack.
  *  @author Roland Li
  */
 public class DepthFirstTraversal extends Traversal {
 
     /** A depth-first Traversal of G. */
     protected DepthFirstTraversal(Graph G) {
-        super(G, Collections.asLifoQueue(new ArrayDeque<Integer>()));
+        this(G, false);
+    }
 
+    /** A depth-first Traversal of G whose marks are epoch stamps iff
+     *  STAMPED (see Traversal). */
+    protected DepthFirstTraversal(Graph G, boolean stamped) {
+        super(G, Fringe.stack(), stamped);
+        _frameVertex = new int[INIT_FRAMES];
+        _frameCursor = newCursors(INIT_FRAMES);
+    }
+
+    /** Prepare for a depth-first traversal from each vertex of V0 in turn
+     *  that has not been marked by the time it is reached. */
+    @Override
+    public void start(Collection<Integer> V0) {
+        popAll();
+        _roots = new int[V0.size()];
+        int k = 0;
+        for (int v0 : V0) {
+            _roots[k] = v0;
+            k += 1;
+        }
+        _nextRoot = 0;
+        startProgress();
+    }
+
+    @Override
+    public boolean resume(int budget) {
+        long limit = workDone() + budget;
+        while (!isFinished() && workDone() < limit) {
+            if (_depth == 0) {
+                while (_nextRoot < _roots.length
+                       && marked(_roots[_nextRoot])) {
+                    _nextRoot += 1;
+                }
+                if (_nextRoot == _roots.length) {
+                    finish();
+                } else if (!enter(_roots[_nextRoot])) {
+                    finish();
+                }
+                continue;
+            }
+            int u = _frameVertex[_depth - 1];
+            Iteration<Integer> cursor = _frameCursor[_depth - 1];
+            if (cursor.hasNext()) {
+                int v = cursor.next();
+                countEdge();
+                if (processSuccessor(u, v) && !marked(v) && !enter(v)) {
+                    finish();
+                }
+            } else {
+                _depth -= 1;
+                _frameCursor[_depth] = null;
+                if (shouldPostVisit(u) && !postVisit(u)) {
+                    finish();
+                }
+            }
+        }
+        return isFinished();
+    }
+
+    /** Returns the number of vertices whose traversal is in progress
+     *  (that is, the depth of the stack of frames). */
+    @Override
+    public int fringeSize() {
+        return _depth;
     }
 
     @Override
@@ -33,5 +103,47 @@ public class DepthFirstTraversal extends Traversal {
         return true;
     }
 
+    /** Mark and visit V, and push a frame for it.  Returns false iff the
+     *  traversal is to terminate immediately. */
+    private boolean enter(int v) {
+        mark(v);
+        countVertex();
+        if (!visit(v)) {
+            return false;
+        }
+        if (_depth == _frameVertex.length) {
+            _frameVertex = Arrays.copyOf(_frameVertex, 2 * _depth);
+            _frameCursor = Arrays.copyOf(_frameCursor, 2 * _depth);
+        }
+        _frameVertex[_depth] = v;
+        _frameCursor[_depth] = graph().successors(v);
+        _depth += 1;
+        return true;
+    }
+
+    /** Discard all frames. */
+    private void popAll() {
+        Arrays.fill(_frameCursor, 0, _depth, null);
+        _depth = 0;
+    }
+
+    /** Returns an array of N successor cursors. */
+    @SuppressWarnings("unchecked")
+    private static Iteration<Integer>[] newCursors(int n) {
+        return (Iteration<Integer>[]) new Iteration<?>[n];
+    }
+
+    /** Initial number of frames. */
+    private static final int INIT_FRAMES = 16;
 
+    /** The vertex of each frame, bottom first. */
+    private int[] _frameVertex;
+    /** The remaining successors of each frame's vertex, bottom first. */
+    private Iteration<Integer>[] _frameCursor;
+    /** Number of frames on the stack. */
+    private int _depth;
+    /** Starting vertices of the current traversal. */
+    private int[] _roots = new int[0];
+    /** Index in _roots of the next starting vertex to try. */
+    private int _nextRoot;
 }
@@ -0,0 +1,251 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/** A breadth-first traversal that chooses, level by level, between the
+ *  usual top-down expansion (scanning the successors of each vertex in the
+ *  current level) and bottom-up expansion (scanning the predecessors of
+ *  each unvisited vertex until one in the current level is found).  On
+ *  graphs of small diameter, the middle levels contain most of the graph,
+ *  and bottom-up steps avoid examining the many edges that lead to
+ *  vertices already visited.  Levels are held as bitsets (long[]), so that
+ *  vertices are visited in increasing order within each level.
+ *
+ *  The switch follows Beamer, Asanovic and Patterson: go bottom-up when
+ *  the edges leaving the current level exceed 1/ALPHA of the edges leaving
+ *  unvisited vertices, and return to top-down when the level shrinks below
+ *  1/BETA of the vertices.  As for ParallelBreadthFirstTraversal,
+ *  processSuccessor is not consulted, and the graph must not change during
+ *  a traversal.  Also as there, only traverse uses this strategy and
+ *  records levels; start and resume run the sequential queue-based
+ *  traversal, and traversals read a snapshot of the graph (including its
+ *  predecessors) that is retaken only when the modCount of the graph
+ *  changes (see Graph.modCount), or after refresh().
+ *  @author Roland Li
+ */
+public class DirectionOptimizingTraversal extends BreadthFirstTraversal {
+
+    /** Default value of the top-down to bottom-up switching factor. */
+    public static final int DEFAULT_ALPHA = 14;
+    /** Default value of the bottom-up to top-down switching factor. */
+    public static final int DEFAULT_BETA = 24;
+
+    /** A direction-optimizing breadth-first Traversal of G. */
+    protected DirectionOptimizingTraversal(Graph G) {
+        this(G, DEFAULT_ALPHA, DEFAULT_BETA);
+    }
+
+    /** A direction-optimizing breadth-first Traversal of G with switching
+     *  factors ALPHA and BETA (see above). */
+    protected DirectionOptimizingTraversal(Graph G, int alpha, int beta) {
+        super(G);
+        _alpha = alpha;
+        _beta = beta;
+        _level = new int[0];
+    }
+
+    @Override
+    public void traverse(Collection<Integer> V0) {
+        startProgress();
+        Graph G = graph();
+        if (_adj == null || G.modCount() != _modCount) {
+            _modCount = G.modCount();
+            _adj = new Adjacency(G);
+            _adj.ensurePredecessors();
+        }
+        Adjacency adj = _adj;
+        int n = adj.maxVertex();
+        int words = (n >> 6) + 1;
+        long[] visited = markedWords(n);
+        long[] frontier = new long[words];
+        long[] next = new long[words];
+        resetLevels(n);
+        _bottomUpSteps = 0;
+
+        long unexploredArcs = adj.arcs();
+        for (int k = 0; k < words; k += 1) {
+            for (long w = visited[k]; w != 0; w &= w - 1) {
+                int v = (k << 6) + Long.numberOfTrailingZeros(w);
+                if (v > 0) {
+                    unexploredArcs -= adj.outDegree(v);
+                }
+            }
+        }
+        int frontierSize = 0;
+        long frontierArcs = 0;
+        for (int v : V0) {
+            if (v >= 1 && v <= n && (visited[v >> 6] & (1L << v)) == 0) {
+                visited[v >> 6] |= 1L << v;
+                frontier[v >> 6] |= 1L << v;
+                frontierSize += 1;
+                frontierArcs += adj.outDegree(v);
+                unexploredArcs -= adj.outDegree(v);
+            }
+        }
+
+        boolean bottomUp = false;
+        while (frontierSize > 0) {
+            for (int k = 0; k < words; k += 1) {
+                for (long w = frontier[k]; w != 0; w &= w - 1) {
+                    int v = (k << 6) + Long.numberOfTrailingZeros(w);
+                    _level[v] = _levels;
+                    _reached[_reachedCount] = v;
+                    _reachedCount += 1;
+                    mark(v);
+                    countVertex();
+                    if (!visit(v)) {
+                        finish();
+                        return;
+                    }
+                }
+            }
+            _levels += 1;
+
+            if (!bottomUp && frontierArcs > unexploredArcs / _alpha) {
+                bottomUp = true;
+            } else if (bottomUp && frontierSize < n / _beta) {
+                bottomUp = false;
+            }
+            Arrays.fill(next, 0);
+            if (bottomUp) {
+                _bottomUpSteps += 1;
+                countEdges(bottomUpStep(adj, frontier, next, visited));
+            } else {
+                countEdges(topDownStep(adj, frontier, next, visited));
+            }
+
+            frontierSize = 0;
+            frontierArcs = 0;
+            for (int k = 0; k < words; k += 1) {
+                visited[k] |= next[k];
+                for (long w = next[k]; w != 0; w &= w - 1) {
+                    int v = (k << 6) + Long.numberOfTrailingZeros(w);
+                    frontierSize += 1;
+                    frontierArcs += adj.outDegree(v);
+                }
+            }
+            unexploredArcs -= frontierArcs;
+            long[] t = frontier;
+            frontier = next;
+            next = t;
+        }
+        finish();
+    }
+
+    /** Forget the levels of the last traversal, and prepare for a
+     *  sequential traversal from V0 by resume. */
+    @Override
+    public void start(Collection<Integer> V0) {
+        _level = new int[0];
+        _levels = _reachedCount = 0;
+        _bottomUpSteps = 0;
+        super.start(V0);
+    }
+
+    /** Retake my snapshot of the graph before the next traversal. */
+    public void refresh() {
+        _adj = null;
+    }
+
+    /** Set the levels of all vertices numbered up to N to -1, in time
+     *  proportional to the number reached by the last traversal if
+     *  possible. */
+    private void resetLevels(int n) {
+        if (_level.length != n + 1) {
+            _level = new int[n + 1];
+            Arrays.fill(_level, -1);
+            _reached = new int[n + 1];
+        } else {
+            for (int i = 0; i < _reachedCount; i += 1) {
+                _level[_reached[i]] = -1;
+            }
+        }
+        _reachedCount = 0;
+        _levels = 0;
+    }
+
+    /** Returns the level (number of edges from the nearest starting
+     *  vertex) at which V was reached by the last traversal, or -1 if it
+     *  was not reached. */
+    public int level(int v) {
+        return v >= 0 && v < _level.length ? _level[v] : -1;
+    }
+
+    /** Returns the number of levels reached by the last traversal. */
+    public int levelCount() {
+        return _levels;
+    }
+
+    /** Returns the number of levels of the last traversal that were
+     *  expanded bottom-up. */
+    public int bottomUpSteps() {
+        return _bottomUpSteps;
+    }
+
+    /** Set NEXT to the unvisited successors of the vertices in FRONTIER,
+     *  according to ADJ and VISITED.  Returns the number of edges
+     *  examined. */
+    private static long topDownStep(Adjacency adj, long[] frontier,
+                                    long[] next, long[] visited) {
+        int[] start = adj.outStart, out = adj.out;
+        long edges = 0;
+        for (int k = 0; k < frontier.length; k += 1) {
+            for (long w = frontier[k]; w != 0; w &= w - 1) {
+                int u = (k << 6) + Long.numberOfTrailingZeros(w);
+                edges += start[u + 1] - start[u];
+                for (int e = start[u]; e < start[u + 1]; e += 1) {
+                    int v = out[e];
+                    if ((visited[v >> 6] & (1L << v)) == 0) {
+                        next[v >> 6] |= 1L << v;
+                    }
+                }
+            }
+        }
+        return edges;
+    }
+
+    /** Set NEXT to the unvisited vertices (according to VISITED) that have
+     *  a predecessor in FRONTIER, according to ADJ.  Returns the number of
+     *  edges examined. */
+    private static long bottomUpStep(Adjacency adj, long[] frontier,
+                                     long[] next, long[] visited) {
+        int[] start = adj.inStart, in = adj.in;
+        int n = adj.maxVertex();
+        long edges = 0;
+        for (int v = 1; v <= n; v += 1) {
+            if ((visited[v >> 6] & (1L << v)) == 0) {
+                for (int e = start[v]; e < start[v + 1]; e += 1) {
+                    int u = in[e];
+                    edges += 1;
+                    if ((frontier[u >> 6] & (1L << u)) != 0) {
+                        next[v >> 6] |= 1L << v;
+                        break;
+                    }
+                }
+            }
+        }
+        return edges;
+    }
+
+    /** Switching factor from top-down to bottom-up. */
+    private final int _alpha;
+    /** Switching factor from bottom-up to top-down. */
+    private final int _beta;
+    /** Level of each vertex in the last traversal, or -1. */
+    private int[] _level;
+    /** Number of levels in the last traversal. */
+    private int _levels;
+    /** Number of bottom-up levels in the last traversal. */
+    private int _bottomUpSteps;
+    /** Vertices reached by the last traversal, in order. */
+    private int[] _reached;
+    /** Number of vertices in _reached. */
+    private int _reachedCount;
+    /** Snapshot of the graph, or null if none has been taken. */
+    private Adjacency _adj;
+    /** Value of graph().modCount() when _adj was taken. */
+    private int _modCount;
+}
@@ -0,0 +1,252 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** Shortest distances from each of a set of source vertices to each of a
+ *  set of target vertices.  Each source gets one Dijkstra search, which
+ *  stops as soon as every target has been settled, rather than one search
+ *  per pair.  Searches for different sources run in parallel as tasks in a
+ *  ForkJoinPool, each thread reusing its own SearchWorkspace.  Searches
+ *  read a snapshot of the graph with its edge weights, taken when first
+ *  needed and retaken when a graph from this package changes.  For other
+ *  graphs, and when weights change, call refresh().
+ *
+ *  Clients supply edge weights by overriding getWeight(U, V), which is
+ *  called only on the client's thread, while taking a snapshot.  Weights
+ *  must be non-negative.
+ *  @author Roland Li
+ */
+public abstract class DistanceMatrix {
+
+    /** Distance computations over G using the common ForkJoinPool. */
+    public DistanceMatrix(Graph G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /** Distance computations over G whose searches run in POOL. */
+    public DistanceMatrix(Graph G, ForkJoinPool pool) {
+        _G = G;
+        _pool = pool;
+        _trees = new int[0][];
+    }
+
+    /** Returns the weight of edge (U, V) of the graph. */
+    protected abstract double getWeight(int u, int v);
+
+    /** Retain the predecessor tree of each source's search iff ON (by
+     *  default, they are discarded). */
+    public void setPredecessorTrees(boolean on) {
+        _keepTrees = on;
+    }
+
+    /** Retake my snapshot of the graph and its weights. */
+    public void refresh() {
+        _modCount = _G.modCount();
+        Adjacency adj = new Adjacency(_G);
+        int n = adj.maxVertex();
+        double[] weight = new double[adj.out.length];
+        for (int u = 1; u <= n; u += 1) {
+            for (int e = adj.outStart[u]; e < adj.outStart[u + 1]; e += 1) {
+                weight[e] = getWeight(u, adj.out[e]);
+            }
+        }
+        _adj = adj;
+        _weight = weight;
+        _workspaces = new ThreadLocal<>();
+    }
+
+    /** Returns the matrix of shortest distances from each of SOURCES to
+     *  each of TARGETS: element [i][j] is the distance from SOURCES[i] to
+     *  TARGETS[j], or positive infinity if there is no path. */
+    public double[][] distances(int[] sources, int[] targets) {
+        if (_adj == null || _G.modCount() != _modCount) {
+            refresh();
+        }
+        for (int v : sources) {
+            checkVertex(v);
+        }
+        boolean[] isTarget = new boolean[_adj.maxVertex() + 1];
+        int distinct = 0;
+        for (int v : targets) {
+            checkVertex(v);
+            if (!isTarget[v]) {
+                isTarget[v] = true;
+                distinct += 1;
+            }
+        }
+        double[][] result = new double[sources.length][];
+        _trees = new int[_keepTrees ? sources.length : 0][];
+        Search all = new Search(sources, targets, isTarget, distinct,
+                                result, 0, sources.length);
+        if (sources.length <= 1) {
+            all.compute();
+        } else {
+            _pool.invoke(all);
+        }
+        return result;
+    }
+
+    /** Returns the distances from SOURCE to each of TARGETS (see
+     *  distances). */
+    public double[] distancesFrom(int source, int[] targets) {
+        return distances(new int[] { source }, targets)[0];
+    }
+
+    /** Returns the predecessor tree of the search from the Ith source of
+     *  the last call to distances, indexed by vertex (0 for vertices with
+     *  no predecessor), with the source itself in element 0.  It is
+     *  complete for the targets, though not necessarily for other
+     *  vertices.  Requires that trees were retained (see
+     *  setPredecessorTrees). */
+    public int[] predecessorTree(int i) {
+        if (i >= _trees.length) {
+            throw new IllegalStateException("predecessor trees not kept");
+        }
+        return _trees[i];
+    }
+
+    /** Returns the vertices of a shortest path from the Ith source of the
+     *  last call to distances to target V, starting with the source, or an
+     *  empty list if V was not reached.  Requires that trees were retained
+     *  (see setPredecessorTrees). */
+    public List<Integer> pathTo(int i, int v) {
+        int[] tree = predecessorTree(i);
+        ArrayList<Integer> path = new ArrayList<>();
+        int source = tree[0];
+        if (v != source && tree[v] == 0) {
+            return path;
+        }
+        for (int w = v; w != source; w = tree[w]) {
+            path.add(w);
+        }
+        path.add(source);
+        Collections.reverse(path);
+        return path;
+    }
+
+    /** Returns the workspace of the current thread. */
+    private SearchWorkspace workspace() {
+        SearchWorkspace ws = _workspaces.get();
+        if (ws == null || ws.maxVertex() != _adj.maxVertex()) {
+            ws = new SearchWorkspace(_adj.maxVertex());
+            _workspaces.set(ws);
+        }
+        return ws;
+    }
+
+    /** Throw an exception if V is out of the range of vertex numbers of my
+     *  snapshot. */
+    private void checkVertex(int v) {
+        if (v < 1 || v > _adj.maxVertex()) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+    }
+
+    /** A task that runs the searches for some of the sources. */
+    private class Search extends RecursiveAction {
+        /** A task filling RESULT[LO .. HI-1] with the distances from
+         *  SOURCES[LO .. HI-1] to TARGETS, where ISTARGET is true exactly
+         *  for the DISTINCT vertices in TARGETS. */
+        Search(int[] sources, int[] targets, boolean[] isTarget,
+               int distinct, double[][] result, int lo, int hi) {
+            _sources = sources;
+            _targets = targets;
+            _isTarget = isTarget;
+            _distinct = distinct;
+            _result = result;
+            _lo = lo;
+            _hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (_hi - _lo > 1) {
+                int mid = (_lo + _hi) >>> 1;
+                invokeAll(new Search(_sources, _targets, _isTarget,
+                                     _distinct, _result, _lo, mid),
+                          new Search(_sources, _targets, _isTarget,
+                                     _distinct, _result, mid, _hi));
+                return;
+            }
+            for (int i = _lo; i < _hi; i += 1) {
+                search(i);
+            }
+        }
+
+        /** Run the search from _sources[I]. */
+        private void search(int i) {
+            SearchWorkspace ws = workspace();
+            IndexedHeap queue = ws.queue;
+            int[] start = _adj.outStart, out = _adj.out;
+            int source = _sources[i];
+            ws.reset();
+            ws.reach(source, 0.0, 0);
+            queue.put(source, 0.0);
+            int remaining = _distinct;
+            while (remaining > 0 && !queue.isEmpty()) {
+                int u = queue.poll();
+                if (_isTarget[u]) {
+                    remaining -= 1;
+                }
+                double du = ws.dist(u);
+                for (int e = start[u]; e < start[u + 1]; e += 1) {
+                    int v = out[e];
+                    double d = du + _weight[e];
+                    if (d < ws.dist(v)) {
+                        ws.reach(v, d, u);
+                        queue.put(v, d);
+                    }
+                }
+            }
+            double[] row = new double[_targets.length];
+            for (int j = 0; j < row.length; j += 1) {
+                row[j] = ws.dist(_targets[j]);
+            }
+            _result[i] = row;
+            if (_keepTrees) {
+                int[] tree = new int[_adj.maxVertex() + 1];
+                for (int k = 0; k < ws.touchedCount(); k += 1) {
+                    int v = ws.touched(k);
+                    tree[v] = ws.pred(v);
+                }
+                tree[0] = source;
+                _trees[i] = tree;
+            }
+        }
+
+        /** Parameters of the searches (see constructor). */
+        private final int[] _sources, _targets;
+        /** True for target vertices. */
+        private final boolean[] _isTarget;
+        /** Number of distinct targets. */
+        private final int _distinct;
+        /** The distance matrix being filled. */
+        private final double[][] _result;
+        /** Bounds of my part of _sources. */
+        private final int _lo, _hi;
+    }
+
+    /** The graph. */
+    private final Graph _G;
+    /** Pool in which searches run. */
+    private final ForkJoinPool _pool;
+    /** Snapshot of _G, or null if none has been taken. */
+    private Adjacency _adj;
+    /** Weights of the edges of _adj. */
+    private double[] _weight;
+    /** Value of _G.modCount() when _adj was taken. */
+    private int _modCount;
+    /** The workspace of each thread, for the current snapshot. */
+    private ThreadLocal<SearchWorkspace> _workspaces;
+    /** True iff predecessor trees are retained. */
+    private boolean _keepTrees;
+    /** Predecessor trees of the last computation (with the source in
+     *  element 0), or empty. */
+    private int[][] _trees;
+}
@@ -0,0 +1,196 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Queue;
+
+/** The collection of vertices waiting to be processed by a Traversal.
+ *  Vertices are kept as unboxed ints, so that the standard fringes
+ *  (queue() for breadth-first and stack() for depth-first traversals)
+ *  allocate nothing per vertex once they have grown to the size a
+ *  traversal needs.  Clients may extend this class to obtain other
+ *  disciplines.
+ *  @author Roland Li
+ */
+public abstract class Fringe {
+
+    /** Add vertex V to me. */
+    public abstract void add(int v);
+
+    /** Remove and return my next vertex.  Requires that I am not empty. */
+    public abstract int remove();
+
+    /** Returns true iff I contain no vertices. */
+    public abstract boolean isEmpty();
+
+    /** Returns the number of vertices I contain. */
+    public abstract int size();
+
+    /** Remove all my vertices. */
+    public abstract void clear();
+
+    /** Add all vertices in VS to me, in order. */
+    public void addAll(Collection<Integer> vs) {
+        for (int v : vs) {
+            add(v);
+        }
+    }
+
+    /** Arrange, as far as my discipline allows, that the last N vertices
+     *  added are removed in the order in which they were added.  A
+     *  traversal calls this after adding the successors of a vertex, so
+     *  that successors are explored in the order the graph reports them.
+     *  By default, does nothing. */
+    public void orderLast(int n) {
+    }
+
+    /** Returns a new, empty first-in-first-out Fringe. */
+    public static Fringe queue() {
+        return new IntQueue();
+    }
+
+    /** Returns a new, empty last-in-first-out Fringe. */
+    public static Fringe stack() {
+        return new IntStack();
+    }
+
+    /** Returns a Fringe that delegates to QUEUE. */
+    public static Fringe of(Queue<Integer> queue) {
+        return new QueueFringe(queue);
+    }
+
+    /** Initial capacity of the standard fringes. */
+    private static final int INIT_CAPACITY = 16;
+
+    /** A first-in-first-out Fringe kept in a circular buffer. */
+    private static class IntQueue extends Fringe {
+        @Override
+        public void add(int v) {
+            if (_size == _items.length) {
+                int[] items = new int[2 * _items.length];
+                int k = _items.length - _head;
+                System.arraycopy(_items, _head, items, 0, k);
+                System.arraycopy(_items, 0, items, k, _head);
+                _items = items;
+                _head = 0;
+            }
+            _items[(_head + _size) & (_items.length - 1)] = v;
+            _size += 1;
+        }
+
+        @Override
+        public int remove() {
+            int v = _items[_head];
+            _head = (_head + 1) & (_items.length - 1);
+            _size -= 1;
+            return v;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return _size == 0;
+        }
+
+        @Override
+        public int size() {
+            return _size;
+        }
+
+        @Override
+        public void clear() {
+            _head = _size = 0;
+        }
+
+        /** The circular buffer.  Its length is always a power of 2. */
+        private int[] _items = new int[INIT_CAPACITY];
+        /** Index of my next vertex in _items. */
+        private int _head;
+        /** Number of vertices I contain. */
+        private int _size;
+    }
+
+    /** A last-in-first-out Fringe kept in an array. */
+    private static class IntStack extends Fringe {
+        @Override
+        public void add(int v) {
+            if (_size == _items.length) {
+                _items = Arrays.copyOf(_items, 2 * _items.length);
+            }
+            _items[_size] = v;
+            _size += 1;
+        }
+
+        @Override
+        public int remove() {
+            _size -= 1;
+            return _items[_size];
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return _size == 0;
+        }
+
+        @Override
+        public int size() {
+            return _size;
+        }
+
+        @Override
+        public void clear() {
+            _size = 0;
+        }
+
+        @Override
+        public void orderLast(int n) {
+            for (int i = _size - n, j = _size - 1; i < j; i += 1, j -= 1) {
+                int t = _items[i];
+                _items[i] = _items[j];
+                _items[j] = t;
+            }
+        }
+
+        /** My vertices, bottom first. */
+        private int[] _items = new int[INIT_CAPACITY];
+        /** Number of vertices I contain. */
+        private int _size;
+    }
+
+    /** A Fringe that delegates to a Queue<Integer>. */
+    private static class QueueFringe extends Fringe {
+        /** A Fringe delegating to QUEUE. */
+        QueueFringe(Queue<Integer> queue) {
+            _queue = queue;
+        }
+
+        @Override
+        public void add(int v) {
+            _queue.add(v);
+        }
+
+        @Override
+        public int remove() {
+            return _queue.remove();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return _queue.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return _queue.size();
+        }
+
+        @Override
+        public void clear() {
+            _queue.clear();
+        }
+
+        /** The queue I delegate to. */
+        private final Queue<Integer> _queue;
+    }
+}
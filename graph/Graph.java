@@ -120,4 +120,18 @@ public abstract class Graph {
      *  returned by add(u, v). */
     protected abstract int edgeId(int u, int v);
 
+    /** Returns a count of the changes made so far to my vertices and edges.
+     *  The value changes whenever I do, so that objects that cache
+     *  information derived from me (such as the snapshots read by
+     *  ParallelBreadthFirstTraversal and the results kept by Neighborhoods)
+     *  can tell when it has become stale.  The graphs of this package keep
+     *  an exact count.  Other graphs, including filters that change which
+     *  vertices and edges they present, should override this method.  By
+     *  default, it returns a value computed from vertexSize(), edgeSize(),
+     *  and maxVertex(), which misses changes that leave all three the same
+     *  (such as replacing one edge with another). */
+    protected int modCount() {
+        return (31 * vertexSize() + edgeSize()) * 31 + maxVertex();
+    }
+
 }
@@ -4,7 +4,10 @@ import java.util.ArrayList;
 
 /** A Graph that delegates all its operations to another, preexisting
  *  Graph object.  This is intended to be extended, and selected methods
- *  overridden, as needed.
+ *  overridden, as needed.  A filter reports the changes of the graph it
+ *  delegates to through modCount; one that can also change which vertices
+ *  or edges it presents must override modCount to count those changes,
+ *  so that the caches of classes such as Neighborhoods are discarded.
  *  @author P. N. Hilfinger */
 public class GraphFilter extends Graph {
 
@@ -108,6 +111,11 @@ public class GraphFilter extends Graph {
         _G.checkMyVertex(v);
     }
 
+    @Override
+    protected int modCount() {
+        return _G.modCount();
+    }
+
     /** My underlying graph. */
     private final Graph _G;
 }
@@ -3,6 +3,7 @@ package graph;
 /* See restrictions in Graph.java. */
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 import static graph.Iteration.iteration;
 
@@ -62,52 +63,31 @@ abstract class GraphObj extends Graph {
 
     @Override
     public boolean contains(int u) {
-        Iteration<Integer> vertices = vertices();
-        while (vertices.hasNext()) {
-            int vertex = vertices.next();
-            if (vertex == u) {
-                return true;
-            }
-        }
-        return false;
+        return Collections.binarySearch(verticesSet, u) >= 0;
     }
 
     @Override
     public boolean contains(int u, int v) {
-        int[] con = new int[2];
-        con[0] = u;
-        con[1] = v;
-        if (isDirected() && contains(u)) {
-            for (int[] edge : edgesSet) {
-                if (con[0] == edge[0] && con[1] == edge[1]) {
-                    return true;
-                }
-            }
-        } else if (!isDirected() && contains(u) && contains(v)) {
-            Iteration<Integer> edgesIterator = successors(u);
-            Iteration<Integer> edgesIteratorv = successors(v);
-            while (edgesIterator.hasNext()) {
-                if (edgesIterator.next() == v) {
-                    return true;
-                }
-            }
-            while (edgesIteratorv.hasNext()) {
-                if (edgesIteratorv.next() == u) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return contains(u) && contains(v) && nextTo.get(u - 1).contains(v);
     }
 
     @Override
     public int add() {
+        if (vertexSize == maxVertex) {
+            maxVertex++;
+            vertexSize++;
+            modCount++;
+            verticesSet.add(maxVertex);
+            nextTo.add(new ArrayList<>());
+            return maxVertex;
+        }
         Iteration<Integer> vertexIterator = vertices();
         int i = 0;
         while (vertexIterator.hasNext()) {
             i++;
             if (vertexIterator.next() != i) {
                 vertexSize++;
+                modCount++;
                 verticesSet.add(i);
                 sort(verticesSet, verticesSet.size());
                 return i;
@@ -119,6 +99,7 @@ abstract class GraphObj extends Graph {
             sort(verticesSet, verticesSet.size());
         }
         vertexSize++;
+        modCount++;
         nextTo.add(new ArrayList<>());
         return i + 1;
     }
@@ -144,6 +125,7 @@ abstract class GraphObj extends Graph {
         }
         edgesSet.add(edgeArray);
         edgeSize++;
+        modCount++;
         return edgeId(u, v);
     }
 
@@ -173,38 +155,29 @@ abstract class GraphObj extends Graph {
         }
         edgeSize = i;
         edgesSet = newEdges;
+        modCount++;
     }
 
     @Override
     public void remove(int u, int v) {
+        if (!contains(u, v)) {
+            return;
+        }
         ArrayList<int[]> newEdges = new ArrayList<int[]>();
         for (int[] edge : edgesSet) {
-            if (!isDirected()) {
-                if (!((edge[0] == v && edge[1] == u)
-                        || (edge[0] == u && edge[1] == v))) {
-                    newEdges.add(edge);
-                    ArrayList<Integer> start = nextTo.get(u - 1);
-                    ArrayList<Integer> starts = nextTo.get(v - 1);
-                    if (start.contains(v)) {
-                        int a = start.indexOf(v);
-                        start.remove(a);
-                        starts.remove(a);
-                    } else {
-                        int a = starts.indexOf(u);
-                        starts.remove(a);
-                        start.remove(a);
-                    }
-                }
-            } else {
-                if (!(edge[0] == u && edge[1] == v)) {
-                    newEdges.add(edge);
-                    Object a = (int) v;
-                    nextTo.get(u - 1).remove(a);
-                }
+            if (!((edge[0] == u && edge[1] == v)
+                  || (!isDirected() && edge[0] == v && edge[1] == u))) {
+                newEdges.add(edge);
             }
         }
+        Object a = (int) v, b = (int) u;
+        nextTo.get(u - 1).remove(a);
+        if (!isDirected()) {
+            nextTo.get(v - 1).remove(b);
+        }
         edgeSize--;
         edgesSet = newEdges;
+        modCount++;
     }
 
     @Override
@@ -216,8 +189,7 @@ abstract class GraphObj extends Graph {
 
     @Override
     public Iteration<Integer> successors(int v) {
-        int a = verticesSet.indexOf(v);
-        if (a == -1) {
+        if (v < 1 || v > nextTo.size()) {
             return iteration(new ArrayList<Integer>());
         }
         ArrayList<Integer> successors = nextTo.get(v - 1);
@@ -248,19 +220,22 @@ abstract class GraphObj extends Graph {
         return ((u + v) * (u + v + 1) / 2 + v);
     }
 
+    @Override
+    protected int modCount() {
+        return modCount;
+    }
+
     /** Sort an ARRAY for K integers. */
     public void sort(ArrayList<Integer> array, int k) {
         int i = 1;
         while (i < k) {
             int j = i - 1;
             int value = array.get(i);
-            while (j >= 0) {
-                if (array.get(j) > value) {
-                    array.add(j + 1, array.get(j));
-                    array.remove(j + 2);
-                    array.add(j, value);
-                    array.remove(j + 1);
-                }
+            while (j >= 0 && array.get(j) > value) {
+                array.add(j + 1, array.get(j));
+                array.remove(j + 2);
+                array.add(j, value);
+                array.remove(j + 1);
                 j--;
             }
             i++;
@@ -276,6 +251,9 @@ abstract class GraphObj extends Graph {
     /** The number of edges in the graph. */
     private int edgeSize;
 
+    /** The number of changes made to the graph's structure. */
+    private int modCount;
+
     /** Collection of vertices. */
     private ArrayList<Integer> verticesSet;
 
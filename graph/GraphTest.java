@@ -1,5 +1,12 @@
 package graph;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -212,5 +219,1513 @@ public class GraphTest {
         assertEquals(g.inDegree(6), 0);
     }
 
+    @Test
+    public void labelCompactionTest() {
+        LabeledGraph<String, String> g =
+            new LabeledGraph<>(new DirectedGraph());
+        for (int i = 1; i <= 300; i += 1) {
+            g.add("v" + i);
+        }
+        for (int i = 1; i < 300; i += 1) {
+            g.add(i, i + 1, "e" + i);
+        }
+        assertEquals(300, g.liveVertexLabels());
+        assertEquals(299, g.liveEdgeLabels());
+        for (int i = 300; i > 10; i -= 1) {
+            g.remove(i);
+        }
+        assertEquals(10, g.liveVertexLabels());
+        assertEquals(9, g.liveEdgeLabels());
+        assertTrue(g.allocatedVertexLabelSlots() < 100);
+        assertTrue(g.allocatedEdgeLabelSlots() < 100);
+        assertEquals("v5", g.getLabel(5));
+        assertEquals("e5", g.getLabel(5, 6));
+        g.setAutoCompactLabels(false);
+        for (int i = 10; i > 2; i -= 1) {
+            g.remove(i);
+        }
+        g.compactLabels();
+        assertEquals(2, g.liveVertexLabels());
+        assertEquals("v2", g.getLabel(2));
+        assertEquals("e1", g.getLabel(1, 2));
+    }
+
+    @Test
+    public void labelStoreGrowthTest() {
+        for (int stride = 1; stride <= 3; stride += 1) {
+            LabelStore<String> store = new LabelStore<>();
+            for (int i = 1; i <= 100000; i += 1) {
+                store.put(i * stride, "x");
+            }
+            assertEquals(100000, store.live());
+            assertFalse(store.isSparse());
+            assertTrue(store.compactions() <= 20);
+            assertEquals("x", store.get(3 * stride));
+        }
+        LabelStore<String> store = new LabelStore<>();
+        for (int i = 1; i <= 1000; i += 1) {
+            store.put(i, "x");
+        }
+        for (int i = 1000; i > 100; i -= 1) {
+            store.remove(i);
+        }
+        assertTrue(store.allocated() < 300);
+    }
+
+    @Test
+    public void growingTraversalTest() {
+        Graph g = new DirectedGraph();
+        g.add();
+        g.add();
+        g.add(1, 2);
+        final ArrayList<Integer> seen = new ArrayList<>();
+        BreadthFirstTraversal bFS = new BreadthFirstTraversal(g) {
+            @Override
+            protected boolean visit(int v) {
+                seen.add(v);
+                return true;
+            }
+        };
+        bFS.traverse(1);
+        assertEquals(Arrays.asList(1, 2), seen);
+        for (int i = 3; i <= 100; i += 1) {
+            g.add();
+            g.add(i - 1, i);
+        }
+        bFS.traverse(1);
+        assertEquals(Arrays.asList(1, 2), seen);
+        bFS.traverse(3);
+        assertEquals(100, seen.size());
+        assertTrue(bFS.getMarked()[100]);
+        bFS.clear();
+        assertFalse(bFS.getMarked()[100]);
+    }
+
+    @Test
+    public void stampedTraversalTest() {
+        Graph g = new UndirectedGraph();
+        for (int i = 1; i <= 6; i += 1) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(2, 3);
+        g.add(4, 5);
+        final ArrayList<Integer> seen = new ArrayList<>();
+        BreadthFirstTraversal bFS = new BreadthFirstTraversal(g, true) {
+            @Override
+            protected boolean visit(int v) {
+                seen.add(v);
+                return true;
+            }
+        };
+        for (int k = 0; k < 3; k += 1) {
+            seen.clear();
+            bFS.clear();
+            bFS.traverse(2);
+            assertEquals(Arrays.asList(2, 1, 3), seen);
+            assertFalse(bFS.getMarked()[4]);
+        }
+        bFS.traverse(5);
+        assertEquals(Arrays.asList(2, 1, 3, 5, 4), seen);
+        assertTrue(bFS.getMarked()[1]);
+        g.add();
+        g.add(6, 7);
+        bFS.clear();
+        seen.clear();
+        bFS.traverse(7);
+        assertEquals(Arrays.asList(7, 6), seen);
+    }
+
+    @Test
+    public void fringeTest() {
+        Fringe q = Fringe.queue(), st = Fringe.stack();
+        for (int i = 1; i <= 100; i += 1) {
+            q.add(i);
+            st.add(i);
+            if (i % 3 == 0) {
+                assertEquals(i / 3, q.remove());
+                assertEquals(i, st.remove());
+            }
+        }
+        assertEquals(67, q.size());
+        assertEquals(34, q.remove());
+        st.clear();
+        st.add(1);
+        st.add(2);
+        st.add(3);
+        st.orderLast(2);
+        assertEquals(2, st.remove());
+        assertEquals(3, st.remove());
+        assertEquals(1, st.remove());
+        assertTrue(st.isEmpty());
+    }
+
+    @Test
+    public void customFringeTraversalTest() {
+        Graph g = new DirectedGraph();
+        for (int i = 1; i <= 6; i += 1) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(1, 3);
+        g.add(2, 4);
+        g.add(2, 5);
+        g.add(3, 6);
+        final ArrayList<Integer> seen = new ArrayList<>();
+        Traversal t = new Traversal(g, Fringe.stack()) {
+            @Override
+            protected boolean visit(int v) {
+                seen.add(v);
+                return true;
+            }
+        };
+        t.traverse(1);
+        assertEquals(Arrays.asList(1, 2, 4, 5, 3, 6), seen);
+    }
+
+    @Test
+    public void dfsOrderTest() {
+        Graph g = new DirectedGraph();
+        for (int i = 1; i <= 7; i += 1) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(1, 3);
+        g.add(2, 4);
+        g.add(2, 5);
+        g.add(3, 6);
+        g.add(5, 1);
+        g.add(6, 4);
+        final ArrayList<Integer> pre = new ArrayList<>(),
+            post = new ArrayList<>();
+        DepthFirstTraversal dFS = new DepthFirstTraversal(g) {
+            @Override
+            protected boolean visit(int v) {
+                pre.add(v);
+                return true;
+            }
+
+            @Override
+            protected boolean postVisit(int v) {
+                post.add(v);
+                return true;
+            }
+        };
+        dFS.traverse(Arrays.asList(1, 7));
+        assertEquals(Arrays.asList(1, 2, 4, 5, 3, 6, 7), pre);
+        assertEquals(Arrays.asList(4, 5, 2, 6, 3, 1, 7), post);
+    }
+
+    @Test
+    public void deepDfsTest() {
+        final int n = 100000;
+        Graph g = new DirectedGraph() {
+            @Override
+            public int maxVertex() {
+                return n;
+            }
+
+            @Override
+            public Iteration<Integer> successors(int v) {
+                return Iteration.iteration(v < n ? Arrays.asList(v + 1)
+                                           : Arrays.<Integer>asList());
+            }
+        };
+        final int[] count = new int[2];
+        DepthFirstTraversal dFS = new DepthFirstTraversal(g) {
+            @Override
+            protected boolean visit(int v) {
+                count[0] += 1;
+                return true;
+            }
+
+            @Override
+            protected boolean postVisit(int v) {
+                assertEquals(n - count[1], v);
+                count[1] += 1;
+                return true;
+            }
+        };
+        dFS.traverse(1);
+        assertEquals(n, count[0]);
+        assertEquals(n, count[1]);
+    }
+
+    @Test
+    public void resumableTraversalTest() {
+        Graph g = randomGraph(2000, 4);
+        final ArrayList<Integer> whole = new ArrayList<>();
+        final ArrayList<Integer> sliced = new ArrayList<>();
+        BreadthFirstTraversal full = new BreadthFirstTraversal(g) {
+            @Override
+            protected boolean visit(int v) {
+                whole.add(v);
+                return true;
+            }
+        };
+        BreadthFirstTraversal part = new BreadthFirstTraversal(g) {
+            @Override
+            protected boolean visit(int v) {
+                sliced.add(v);
+                return true;
+            }
+        };
+        full.traverse(1);
+        part.start(1);
+        int slices = 0;
+        boolean done = false;
+        while (!done) {
+            long before = part.workDone();
+            done = part.resume(100);
+            assertTrue(part.workDone() - before <= 100 + 4);
+            slices += 1;
+        }
+        assertTrue(slices > 10);
+        assertEquals(whole, sliced);
+        assertEquals(full.vertexCount(), part.vertexCount());
+        assertEquals(full.edgeCount(), part.edgeCount());
+        assertEquals(0, part.fringeSize());
+
+        whole.clear();
+        sliced.clear();
+        DepthFirstTraversal dFull = new DepthFirstTraversal(g) {
+            @Override
+            protected boolean postVisit(int v) {
+                whole.add(v);
+                return true;
+            }
+        };
+        DepthFirstTraversal dPart = new DepthFirstTraversal(g) {
+            @Override
+            protected boolean postVisit(int v) {
+                sliced.add(v);
+                return true;
+            }
+        };
+        dFull.traverse(Arrays.asList(1, 2, 3));
+        dPart.start(Arrays.asList(1, 2, 3));
+        assertFalse(dPart.isFinished());
+        while (!dPart.resume(7)) {
+            assertTrue(dPart.fringeSize() >= 0);
+        }
+        assertEquals(whole, sliced);
+        assertEquals(dFull.vertexCount(), dPart.vertexCount());
+        assertEquals(dFull.edgeCount(), dPart.edgeCount());
+        assertEquals(0, dPart.fringeSize());
+    }
+
+    @Test
+    public void indexedHeapTest() {
+        Random r = new Random(40);
+        IndexedHeap h = new IndexedHeap(10);
+        double[] key = new double[201];
+        Arrays.fill(key, Double.NaN);
+        for (int i = 0; i < 2000; i += 1) {
+            int v = r.nextInt(200) + 1;
+            if (r.nextInt(3) == 0 && !h.isEmpty()) {
+                int best = 0;
+                for (int u = 1; u <= 200; u += 1) {
+                    if (!Double.isNaN(key[u])
+                        && (best == 0 || key[u] < key[best])) {
+                        best = u;
+                    }
+                }
+                assertEquals(best, h.poll());
+                key[best] = Double.NaN;
+            } else {
+                key[v] = r.nextInt(50);
+                h.put(v, key[v]);
+                assertEquals(key[v], h.key(v), 0.0);
+            }
+            assertEquals(!Double.isNaN(key[v]), h.contains(v));
+        }
+        h.clear();
+        assertTrue(h.isEmpty());
+        assertFalse(h.contains(1));
+    }
+
+    @Test
+    public void radixHeapTest() {
+        Random r = new Random(41);
+        RadixHeap h = new RadixHeap(10);
+        long[] key = new long[201];
+        Arrays.fill(key, -1);
+        long last = 0;
+        for (int i = 0; i < 5000; i += 1) {
+            int v = r.nextInt(200) + 1;
+            if (r.nextInt(3) == 0 && !h.isEmpty()) {
+                int u = h.poll();
+                for (int w = 1; w <= 200; w += 1) {
+                    assertTrue(key[w] < 0 || key[w] >= key[u]);
+                }
+                assertTrue(key[u] >= last);
+                last = key[u];
+                key[u] = -1;
+            } else if (key[v] < 0 || r.nextBoolean()) {
+                long k = last + r.nextInt(1 << r.nextInt(20));
+                if (key[v] >= 0) {
+                    k = Math.min(k, key[v]);
+                }
+                key[v] = k;
+                h.put(v, k);
+            }
+            assertEquals(key[v] >= 0, h.contains(v));
+        }
+        h.clear();
+        assertTrue(h.isEmpty());
+    }
+
+    @Test
+    public void shortestPathsTest() {
+        final int n = 300;
+        Graph g = materialize(randomGraph(n, 3));
+        double[] dist = bellmanFord(g, 1);
+        checkPaths(new TestPaths(g, 1, 0, false), dist);
+        checkPaths(new TestPaths(g, 1, 0, true), dist);
+    }
+
+    @Test
+    public void bidirectionalPathsTest() {
+        final int n = 200;
+        Graph g = materialize(randomGraph(n, 3));
+        for (int s = 1; s <= n; s += 37) {
+            double[] dist = bellmanFord(g, s);
+            for (int t = 1; t <= n; t += 1) {
+                ShortestPaths paths = new TestPaths(g, s, t, false) {
+                    @Override
+                    protected boolean bidirectional() {
+                        return true;
+                    }
+                };
+                paths.setPaths();
+                if (dist[t] == Double.POSITIVE_INFINITY) {
+                    assertTrue(s == t || paths.getPredecessor(t) == 0);
+                    continue;
+                }
+                assertEquals(dist[t], paths.getWeight(t), 1e-9);
+                List<Integer> path = paths.pathTo(t);
+                assertEquals(s, (int) path.get(0));
+                assertEquals(t, (int) path.get(path.size() - 1));
+                double w = 0;
+                for (int i = 1; i < path.size(); i += 1) {
+                    assertTrue(g.contains(path.get(i - 1), path.get(i)));
+                    w += edgeWeight(path.get(i - 1), path.get(i));
+                }
+                assertEquals(dist[t], w, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void bidirectionalAStarTest() {
+        final int side = 15;
+        DirectedGraph g = new DirectedGraph();
+        for (int v = 1; v <= side * side; v += 1) {
+            g.add();
+        }
+        for (int v = 1; v <= side * side; v += 1) {
+            if (v % side != 0) {
+                g.add(v, v + 1);
+                g.add(v + 1, v);
+            }
+            if (v + side <= side * side) {
+                g.add(v, v + side);
+                g.add(v + side, v);
+            }
+        }
+        for (int s = 1; s <= side * side; s += 17) {
+            for (int t = 1; t <= side * side; t += 13) {
+                ShortestPaths forward = new GridPaths(g, s, t, side, false);
+                ShortestPaths both = new GridPaths(g, s, t, side, true);
+                forward.setPaths();
+                both.setPaths();
+                assertEquals(forward.getWeight(t), both.getWeight(t), 1e-9);
+                double w = 0;
+                int u = 0;
+                for (int x : both.pathTo(t)) {
+                    if (u != 0) {
+                        w += edgeWeight(u, x);
+                    }
+                    u = x;
+                }
+                assertEquals(both.getWeight(t), w, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void bidirectionalDirectedTest() {
+        final int n = 2000;
+        final int[] calls = new int[1];
+        DirectedGraph g = new DirectedGraph() {
+            @Override
+            public Iteration<Integer> predecessors(int v) {
+                calls[0] += 1;
+                return super.predecessors(v);
+            }
+        };
+        for (int v = 1; v <= n; v += 1) {
+            g.add();
+            if (v > 1) {
+                g.add(v - 1, v);
+            }
+        }
+        SearchWorkspace ws = new SearchWorkspace();
+        for (int s = 1; s < n; s += 97) {
+            ShortestPaths paths = new SimpleShortestPaths(g, s, n, ws) {
+                @Override
+                protected double getWeight(int u, int v) {
+                    return 1.0;
+                }
+
+                @Override
+                protected boolean bidirectional() {
+                    return true;
+                }
+            };
+            paths.setPaths();
+            assertEquals(n - s, paths.getWeight(n), 0.0);
+            assertTrue(paths.settledCount() <= n - s + 2);
+        }
+        assertEquals(0, calls[0]);
+        g.add(1, n);
+        ShortestPaths paths = new SimpleShortestPaths(g, 1, n, ws) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return 1.0;
+            }
+
+            @Override
+            protected boolean bidirectional() {
+                return true;
+            }
+        };
+        paths.setPaths();
+        assertEquals(1.0, paths.getWeight(n), 0.0);
+        assertEquals(Arrays.asList(1, n), paths.pathTo(n));
+    }
+
+    @Test
+    public void sharedWorkspaceTest() {
+        final int n = 300;
+        Graph g = materialize(randomGraph(n, 3));
+        SearchWorkspace ws = new SearchWorkspace();
+        for (int s = 1; s <= n; s += 29) {
+            final boolean both = s % 2 == 0;
+            double[] dist = bellmanFord(g, s);
+            checkPaths(new SimpleShortestPaths(g, s, 0, ws) {
+                @Override
+                protected double getWeight(int u, int v) {
+                    return edgeWeight(u, v);
+                }
+
+                @Override
+                protected boolean integralWeights() {
+                    return both;
+                }
+            }, dist);
+            int t = 1 + (s * 7) % n;
+            ShortestPaths paths = new SimpleShortestPaths(g, s, t, ws) {
+                @Override
+                protected double getWeight(int u, int v) {
+                    return edgeWeight(u, v);
+                }
+
+                @Override
+                protected boolean bidirectional() {
+                    return both;
+                }
+            };
+            paths.setPaths();
+            if (dist[t] != Double.POSITIVE_INFINITY) {
+                assertEquals(dist[t], paths.getWeight(t), 1e-9);
+            }
+        }
+
+        DirectedGraph chain = new DirectedGraph();
+        for (int v = 1; v <= 1000; v += 1) {
+            chain.add();
+            if (v > 1) {
+                chain.add(v - 1, v);
+            }
+        }
+        ShortestPaths all = new SimpleShortestPaths(chain, 1, 0, ws) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return 1.0;
+            }
+        };
+        all.setPaths();
+        assertEquals(999.0, all.getWeight(1000), 0.0);
+        ShortestPaths near = new SimpleShortestPaths(chain, 500, 501, ws) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return 1.0;
+            }
+        };
+        near.setPaths();
+        assertEquals(1.0, near.getWeight(501), 0.0);
+        assertEquals(Double.POSITIVE_INFINITY, near.getWeight(1), 0.0);
+        assertEquals(Arrays.asList(500, 501), near.pathTo(501));
+        assertTrue(ws.touchedCount() <= 3);
+    }
+
+    @Test
+    public void deltaSteppingTest() {
+        final int n = 20000;
+        Graph g = materialize(randomGraph(n, 5));
+        double[] deltas = { 0.0, 0.5, 3.0, 100.0 };
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int s = 1; s <= n; s += 7919) {
+                ShortestPaths sequential = new TestPaths(g, s, 0, false);
+                sequential.setPaths();
+                for (double delta : deltas) {
+                    DeltaSteppingPaths paths =
+                        new DeltaSteppingPaths(g, s, pool) {
+                            @Override
+                            protected double getWeight(int u, int v) {
+                                return edgeWeight(u, v);
+                            }
+                        };
+                    paths.setDelta(delta);
+                    paths.setPaths();
+                    assertTrue(paths.delta() > 0);
+                    for (int v = 1; v <= n; v += 1) {
+                        double w = sequential.getWeight(v);
+                        assertEquals(w, paths.getWeight(v), 0.0);
+                        int p = paths.getPredecessor(v);
+                        if (v == s || w == Double.POSITIVE_INFINITY) {
+                            assertEquals(0, p);
+                        } else {
+                            assertTrue(g.contains(p, v));
+                            assertEquals(w, paths.getWeight(p)
+                                         + edgeWeight(p, v), 0.0);
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        DirectedGraph chain = new DirectedGraph();
+        for (int v = 1; v <= 5; v += 1) {
+            chain.add();
+            if (v > 1) {
+                chain.add(v - 1, v);
+            }
+        }
+        DeltaSteppingPaths zero = new DeltaSteppingPaths(chain, 1) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return 0.0;
+            }
+        };
+        zero.setPaths();
+        assertEquals(0.0, zero.getWeight(5), 0.0);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), zero.pathTo(5));
+        assertEquals(1, zero.bucketCount());
+    }
+
+    @Test
+    public void searchStatisticsTest() {
+        final DirectedGraph g = new DirectedGraph();
+        for (int v = 1; v <= 4; v += 1) {
+            g.add();
+        }
+        final double[][] w = new double[5][5];
+        int[][] edges = { { 1, 2, 1 }, { 1, 3, 3 }, { 2, 3, 1 },
+                          { 3, 4, 3 } };
+        for (int[] e : edges) {
+            g.add(e[0], e[1]);
+            w[e[0]][e[1]] = e[2];
+        }
+        ShortestPaths paths = new SimpleShortestPaths(g, 1, 4) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return w[u][v];
+            }
+
+            @Override
+            protected double estimatedDistance(int v) {
+                return v == 2 ? 4.0 : 0.0;
+            }
+        };
+        paths.setPaths();
+        assertEquals(5.0, paths.getWeight(4), 0.0);
+        assertEquals(Arrays.asList(1, 2, 3, 4), paths.pathTo(4));
+        assertEquals(1, paths.reopenedCount());
+        assertEquals(5, paths.settledCount());
+        assertEquals(5, paths.relaxedCount());
+        assertEquals(11, paths.heapOperations());
+        assertEquals(2, paths.peakQueueSize());
+
+        final int side = 30;
+        final DirectedGraph grid = new DirectedGraph();
+        for (int v = 1; v <= side * side; v += 1) {
+            grid.add();
+        }
+        for (int v = 1; v <= side * side; v += 1) {
+            if (v % side != 0) {
+                grid.add(v, v + 1);
+                grid.add(v + 1, v);
+            }
+            if (v + side <= side * side) {
+                grid.add(v, v + side);
+                grid.add(v + side, v);
+            }
+        }
+        final int dest = side;
+        ShortestPaths dijkstra = new SimpleShortestPaths(grid, 1, dest) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return 1.0;
+            }
+        };
+        ShortestPaths aStar = new SimpleShortestPaths(grid, 1, dest) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return 1.0;
+            }
+
+            @Override
+            protected double estimatedDistance(int v) {
+                return Math.abs((v - 1) / side - (dest - 1) / side)
+                    + Math.abs((v - 1) % side - (dest - 1) % side);
+            }
+        };
+        dijkstra.setPaths();
+        aStar.setPaths();
+        assertEquals(dijkstra.getWeight(dest), aStar.getWeight(dest), 0.0);
+        assertEquals(0, aStar.reopenedCount());
+        assertTrue(aStar.settledCount() < dijkstra.settledCount() / 2);
+        assertTrue(aStar.relaxedCount() < dijkstra.relaxedCount() / 2);
+        assertTrue(dijkstra.peakQueueSize() <= dijkstra.settledCount());
+        assertTrue(dijkstra.heapOperations()
+                   >= 2 * dijkstra.settledCount() - 1);
+    }
+
+    /** A* searches on a SIDE x SIDE grid, with vertex V at (V-1) % SIDE,
+     *  (V-1) / SIDE and edges weighted by edgeWeight, which is never less
+     *  than the straight-line distance used as a heuristic. */
+    static class GridPaths extends TestPaths {
+        /** Paths in G from SOURCE to DEST, searching from both ends iff
+         *  BOTH. */
+        GridPaths(Graph g, int source, int dest, int side, boolean both) {
+            super(g, source, dest, false);
+            _side = side;
+            _both = both;
+        }
+
+        @Override
+        protected double estimatedDistance(int v) {
+            return dist(v, getDest());
+        }
+
+        @Override
+        protected double estimatedDistanceFrom(int v) {
+            return dist(getSource(), v);
+        }
+
+        @Override
+        protected boolean bidirectional() {
+            return _both;
+        }
+
+        /** Returns the straight-line distance between U and V. */
+        private double dist(int u, int v) {
+            double dx = (u - 1) % _side - (v - 1) % _side;
+            double dy = (u - 1) / _side - (v - 1) / _side;
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+
+        /** Length of a side of the grid. */
+        private final int _side;
+        /** True iff searching from both ends. */
+        private final boolean _both;
+    }
+
+    @Test
+    public void contractionHierarchyTest() {
+        final int n = 300;
+        Graph g = materialize(randomGraph(n, 3));
+        ContractionHierarchy ch = new ContractionHierarchy(g) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return edgeWeight(u, v);
+            }
+        };
+        ch.preprocess();
+        for (int s = 1; s <= n; s += 29) {
+            double[] dist = bellmanFord(g, s);
+            for (int t = 1; t <= n; t += 1) {
+                assertEquals(dist[t], ch.distance(s, t), 1e-9);
+                List<Integer> path = ch.path(s, t);
+                assertEquals(s, (int) path.get(0));
+                if (s == t || dist[t] == Double.POSITIVE_INFINITY) {
+                    assertEquals(1, path.size());
+                    continue;
+                }
+                assertEquals(t, (int) path.get(path.size() - 1));
+                double w = 0;
+                for (int i = 1; i < path.size(); i += 1) {
+                    assertTrue(g.contains(path.get(i - 1), path.get(i)));
+                    w += edgeWeight(path.get(i - 1), path.get(i));
+                }
+                assertEquals(dist[t], w, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void landmarksTest() {
+        final int n = 300;
+        Graph g = materialize(randomGraph(n, 3));
+        for (Landmarks.Strategy strategy : Landmarks.Strategy.values()) {
+            final Landmarks lm = new Landmarks(g) {
+                @Override
+                protected double getWeight(int u, int v) {
+                    return edgeWeight(u, v);
+                }
+            };
+            lm.preprocess(6, strategy);
+            lm.setTiming(strategy == Landmarks.Strategy.AVOID);
+            assertEquals(6, lm.landmarks().length);
+            assertEquals(2L * 6 * (n + 1) * Double.BYTES, lm.tableBytes());
+            for (int s = 1; s <= n; s += 31) {
+                double[] dist = bellmanFord(g, s);
+                for (int t = 1; t <= n; t += 1) {
+                    assertTrue(lm.lowerBound(s, t) <= dist[t] + 1e-9);
+                }
+                for (int t = 1; t <= n; t += 17) {
+                    final int dest = t;
+                    ShortestPaths alt = new TestPaths(g, s, t, false) {
+                        @Override
+                        protected double estimatedDistance(int v) {
+                            return lm.lowerBound(v, dest);
+                        }
+                    };
+                    alt.setPaths();
+                    if (dist[t] < Double.POSITIVE_INFINITY) {
+                        assertEquals(dist[t], alt.getWeight(t), 1e-9);
+                    }
+                }
+            }
+            assertTrue(lm.evaluations() > 0);
+            assertEquals(lm.evaluationNanos() > 0,
+                         strategy == Landmarks.Strategy.AVOID);
+            lm.resetStatistics();
+            assertEquals(0, lm.evaluations());
+            assertEquals(0, lm.evaluationNanos());
+        }
+    }
+
+    @Test
+    public void pathCacheTest() {
+        final LabeledGraph<String, Double> g =
+            new LabeledGraph<>(new DirectedGraph());
+        for (int i = 1; i <= 5; i += 1) {
+            g.add("v" + i);
+        }
+        for (int i = 1; i < 5; i += 1) {
+            g.add(i, i + 1, 1.0);
+        }
+        final int[] searches = new int[1];
+        PathCache cache = new PathCache(g, 3, 10) {
+            @Override
+            protected List<Integer> findPath(int source, int dest) {
+                searches[0] += 1;
+                ShortestPaths paths = new SimpleShortestPaths(g, source,
+                                                              dest) {
+                    @Override
+                    protected double getWeight(int u, int v) {
+                        return g.getLabel(u, v);
+                    }
+                };
+                paths.setPaths();
+                return paths.pathTo(dest);
+            }
+        };
+        assertArrayEquals(new int[] { 1, 2, 3, 4 }, cache.path(1, 4));
+        assertArrayEquals(new int[] { 1, 2, 3, 4 }, cache.path(1, 4));
+        assertEquals(1, searches[0]);
+        assertEquals(1, cache.hits());
+        cache.path(2, 3);
+        cache.path(3, 5);
+        assertEquals(9, cache.cachedVertices());
+        cache.path(1, 4);
+        cache.path(4, 5);
+        assertEquals(3, cache.cachedCount());
+        assertEquals(1, cache.evictions());
+        cache.path(1, 5);
+        assertEquals(7, cache.cachedVertices());
+        assertEquals(5, searches[0]);
+        cache.path(1, 5);
+        assertEquals(5, searches[0]);
+        g.setLabel(2, 3, 2.0);
+        cache.path(1, 5);
+        assertEquals(6, searches[0]);
+        assertEquals(1, cache.cachedCount());
+        g.add(1, 5, 1.0);
+        assertArrayEquals(new int[] { 1, 5 }, cache.path(1, 5));
+        assertEquals(7, cache.misses());
+        g.add(1, 3, 5.0);
+        assertArrayEquals(new int[] { 1, 2, 3 }, cache.path(1, 3));
+        assertArrayEquals(new int[] { 1, 2, 3 }, cache.path(1, 3));
+        g.add(1, 2, 100.0);
+        assertArrayEquals(new int[] { 1, 3 }, cache.path(1, 3));
+        assertEquals(9, cache.misses());
+        assertEquals(4, cache.hits());
+    }
+
+    @Test
+    public void distanceMatrixTest() {
+        final int n = 400;
+        Graph g = materialize(randomGraph(n, 3));
+        DistanceMatrix dm = new DistanceMatrix(g) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return edgeWeight(u, v);
+            }
+        };
+        dm.setPredecessorTrees(true);
+        int[] sources = new int[20], targets = new int[15];
+        for (int i = 0; i < sources.length; i += 1) {
+            sources[i] = 1 + 19 * i;
+        }
+        for (int j = 0; j < targets.length; j += 1) {
+            targets[j] = n - 23 * j;
+        }
+        double[][] m = dm.distances(sources, targets);
+        assertEquals(sources.length, m.length);
+        for (int i = 0; i < sources.length; i += 1) {
+            double[] dist = bellmanFord(g, sources[i]);
+            for (int j = 0; j < targets.length; j += 1) {
+                int t = targets[j];
+                assertEquals(dist[t], m[i][j], 1e-9);
+                List<Integer> path = dm.pathTo(i, t);
+                if (dist[t] == Double.POSITIVE_INFINITY) {
+                    assertTrue(path.isEmpty());
+                    continue;
+                }
+                double w = 0;
+                for (int k = 1; k < path.size(); k += 1) {
+                    w += edgeWeight(path.get(k - 1), path.get(k));
+                }
+                assertEquals(sources[i], (int) path.get(0));
+                assertEquals(dist[t], w, 1e-9);
+            }
+        }
+        assertArrayEquals(m[3], dm.distancesFrom(sources[3], targets), 0.0);
+    }
+
+    @Test
+    public void allPairsTest() {
+        final int n = 150;
+        Graph sparse = materialize(randomGraph(n, 3));
+        Graph dense = materialize(randomGraph(n, 60));
+        for (Graph g : Arrays.asList(sparse, dense)) {
+            AllPairsShortestPaths apsp = new AllPairsShortestPaths(g) {
+                @Override
+                protected double getWeight(int u, int v) {
+                    return edgeWeight(u, v);
+                }
+            };
+            apsp.compute();
+            AllPairsShortestPaths.Method auto = apsp.method();
+            assertTrue(g == sparse
+                       || auto == AllPairsShortestPaths.Method.FLOYD_WARSHALL);
+            double[] first = apsp.matrix();
+            apsp.compute(auto == AllPairsShortestPaths.Method.DIJKSTRA
+                         ? AllPairsShortestPaths.Method.FLOYD_WARSHALL
+                         : AllPairsShortestPaths.Method.DIJKSTRA);
+            assertArrayEquals(first, apsp.matrix(), 1e-9);
+            for (int s = 1; s <= n; s += 41) {
+                double[] dist = bellmanFord(g, s);
+                for (int t = 1; t <= n; t += 1) {
+                    assertEquals(dist[t], apsp.distance(s, t), 1e-9);
+                }
+            }
+        }
+    }
+
+    /** Check that PATHS agrees with the shortest distances DIST, indexed by
+     *  vertex. */
+    static void checkPaths(ShortestPaths paths, double[] dist) {
+        paths.setPaths();
+        for (int v = 1; v < dist.length; v += 1) {
+            if (dist[v] == Double.POSITIVE_INFINITY) {
+                assertEquals(0, paths.getPredecessor(v));
+            } else {
+                assertEquals(dist[v], paths.getWeight(v), 1e-9);
+                double w = 0;
+                int u = 0;
+                for (int x : paths.pathTo(v)) {
+                    if (u != 0) {
+                        w += edgeWeight(u, x);
+                    }
+                    u = x;
+                }
+                assertEquals(dist[v], w, 1e-9);
+            }
+        }
+    }
+
+    /** Returns a DirectedGraph with the vertices 1 .. G.maxVertex() and
+     *  the edges of G. */
+    static DirectedGraph materialize(Graph g) {
+        DirectedGraph result = new DirectedGraph();
+        int n = g.maxVertex();
+        for (int v = 1; v <= n; v += 1) {
+            result.add();
+        }
+        for (int u = 1; u <= n; u += 1) {
+            for (int v : g.successors(u)) {
+                result.add(u, v);
+            }
+        }
+        return result;
+    }
+
+    /** The weight of edge (U, V) in the graphs of shortestPathsTest. */
+    static double edgeWeight(int u, int v) {
+        return (u * 31 + v * 17) % 10 + 1;
+    }
+
+    /** Returns the shortest distances from SOURCE in G, indexed by vertex,
+     *  with edges weighted by edgeWeight, computed by the Bellman-Ford
+     *  algorithm. */
+    static double[] bellmanFord(Graph g, int source) {
+        double[] dist = new double[g.maxVertex() + 1];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int u : g.vertices()) {
+                for (int v : g.successors(u)) {
+                    double d = dist[u] + edgeWeight(u, v);
+                    if (d < dist[v]) {
+                        dist[v] = d;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+
+    /** Shortest paths with edges weighted by edgeWeight. */
+    static class TestPaths extends SimpleShortestPaths {
+        /** Paths in G from SOURCE to DEST (0 for all), declaring weights
+         *  integral iff INTEGRAL. */
+        TestPaths(Graph g, int source, int dest, boolean integral) {
+            super(g, source, dest);
+            _integral = integral;
+        }
+
+        @Override
+        protected boolean integralWeights() {
+            return _integral;
+        }
+
+        @Override
+        protected double getWeight(int u, int v) {
+            return edgeWeight(u, v);
+        }
+
+        /** True iff weights are declared integral. */
+        private final boolean _integral;
+    }
+
+    /** Returns a directed graph with vertices 1 .. N in which each vertex
+     *  has DEG pseudo-random successors, computed on demand. */
+    static Graph randomGraph(final int n, final int deg) {
+        return new DirectedGraph() {
+            @Override
+            public int maxVertex() {
+                return n;
+            }
+
+            @Override
+            public int vertexSize() {
+                return n;
+            }
+
+            @Override
+            public int edgeSize() {
+                return n * deg;
+            }
+
+            @Override
+            public boolean contains(int v) {
+                return v >= 1 && v <= n;
+            }
+
+            @Override
+            public Iteration<Integer> successors(int v) {
+                ArrayList<Integer> result = new ArrayList<>();
+                Random r = new Random(v);
+                for (int i = 0; i < deg; i += 1) {
+                    int w = 1 + r.nextInt(n);
+                    if (!result.contains(w)) {
+                        result.add(w);
+                    }
+                }
+                return Iteration.iteration(result);
+            }
+        };
+    }
+
+    /** Returns the hop distances from V0 in G computed by a sequential
+     *  BreadthFirstTraversal, indexed by vertex, with -1 for unreached
+     *  vertices. */
+    static int[] bfsLevels(Graph g, int v0) {
+        final int[] level = new int[g.maxVertex() + 1];
+        Arrays.fill(level, -1);
+        level[v0] = 0;
+        BreadthFirstTraversal bFS = new BreadthFirstTraversal(g) {
+            @Override
+            protected boolean processSuccessor(int u, int v) {
+                if (level[v] < 0) {
+                    level[v] = level[u] + 1;
+                }
+                return super.processSuccessor(u, v);
+            }
+        };
+        bFS.traverse(v0);
+        return level;
+    }
+
+    @Test
+    public void parallelBfsTest() {
+        Graph g = randomGraph(50000, 3);
+        int[] expected = bfsLevels(g, 1);
+        final AtomicInteger visits = new AtomicInteger();
+        ParallelBreadthFirstTraversal pBFS =
+            new ParallelBreadthFirstTraversal(g) {
+                @Override
+                protected boolean visit(int v) {
+                    visits.incrementAndGet();
+                    return true;
+                }
+            };
+        pBFS.traverse(1);
+        boolean[] marked = pBFS.getMarked();
+        int reached = 0, levels = 0;
+        for (int v = 1; v <= 50000; v += 1) {
+            assertEquals(expected[v], pBFS.level(v));
+            assertEquals(expected[v] >= 0, marked[v]);
+            if (expected[v] >= 0) {
+                reached += 1;
+                levels = Math.max(levels, expected[v] + 1);
+            }
+        }
+        assertEquals(reached, visits.get());
+        assertEquals(levels, pBFS.levelCount());
+        assertTrue(reached > 10000);
+    }
+
+    @Test
+    public void parallelBfsSnapshotTest() {
+        DirectedGraph g = new DirectedGraph();
+        for (int v = 1; v <= 200; v += 1) {
+            g.add();
+        }
+        for (int v = 1; v < 100; v += 1) {
+            g.add(v, v + 1);
+        }
+        ParallelBreadthFirstTraversal pBFS =
+            new ParallelBreadthFirstTraversal(g);
+        pBFS.traverse(1);
+        assertEquals(100, pBFS.vertexCount());
+        assertEquals(99, pBFS.level(100));
+        g.add(1, 100);
+        g.add(100, 150);
+        pBFS.clear();
+        pBFS.traverse(1);
+        assertEquals(101, pBFS.vertexCount());
+        assertEquals(1, pBFS.level(100));
+        assertEquals(2, pBFS.level(150));
+        assertEquals(-1, pBFS.level(151));
+        pBFS.traverse(1);
+        assertEquals(0, pBFS.vertexCount());
+        assertEquals(-1, pBFS.level(100));
+        pBFS.clear();
+        pBFS.traverse(Arrays.asList(2, 150));
+        assertEquals(0, pBFS.level(150));
+        assertEquals(-1, pBFS.level(1));
+        assertEquals(100, pBFS.vertexCount());
+
+        final boolean[] hidden = new boolean[1];
+        final int[] changes = new int[1];
+        GraphFilter f = new GraphFilter(g) {
+            @Override
+            public Iteration<Integer> successors(int v) {
+                if (hidden[0] && v == 1) {
+                    return Iteration.iteration(new ArrayList<Integer>());
+                }
+                return super.successors(v);
+            }
+
+            @Override
+            protected int modCount() {
+                return super.modCount() + changes[0];
+            }
+        };
+        ParallelBreadthFirstTraversal fBFS =
+            new ParallelBreadthFirstTraversal(f);
+        fBFS.traverse(1);
+        assertEquals(101, fBFS.vertexCount());
+        hidden[0] = true;
+        changes[0] += 1;
+        fBFS.clear();
+        fBFS.traverse(1);
+        assertEquals(1, fBFS.vertexCount());
+        DirectionOptimizingTraversal fdBFS =
+            new DirectionOptimizingTraversal(f);
+        fdBFS.traverse(1);
+        assertEquals(1, fdBFS.vertexCount());
+        hidden[0] = false;
+        changes[0] += 1;
+        fdBFS.clear();
+        fdBFS.traverse(1);
+        assertEquals(101, fdBFS.vertexCount());
+        assertEquals(2, fdBFS.level(150));
+
+        DirectionOptimizingTraversal dBFS =
+            new DirectionOptimizingTraversal(g);
+        dBFS.traverse(1);
+        assertEquals(101, dBFS.vertexCount());
+        assertEquals(2, dBFS.level(150));
+        g.add(150, 151);
+        dBFS.clear();
+        dBFS.traverse(1);
+        assertEquals(102, dBFS.vertexCount());
+        assertEquals(3, dBFS.level(151));
+        dBFS.clear();
+        dBFS.traverse(100);
+        assertEquals(-1, dBFS.level(1));
+        assertEquals(1, dBFS.level(150));
+    }
+
+    @Test
+    public void directionOptimizingBfsTest() {
+        Graph g = randomGraph(20000, 4);
+        int[] expected = bfsLevels(g, 7);
+        final ArrayList<Integer> seen = new ArrayList<>();
+        DirectionOptimizingTraversal dBFS =
+            new DirectionOptimizingTraversal(g) {
+                @Override
+                protected boolean visit(int v) {
+                    seen.add(v);
+                    return true;
+                }
+            };
+        dBFS.traverse(7);
+        for (int v = 1; v <= 20000; v += 1) {
+            assertEquals(expected[v], dBFS.level(v));
+        }
+        assertTrue(dBFS.bottomUpSteps() > 0);
+        for (int i = 1; i < seen.size(); i += 1) {
+            int u = seen.get(i - 1), v = seen.get(i);
+            assertTrue(dBFS.level(u) < dBFS.level(v) || u < v);
+        }
+    }
+
+    @Test
+    public void parallelTraversalProgressTest() {
+        Graph g = randomGraph(3000, 4);
+        BreadthFirstTraversal seq = new BreadthFirstTraversal(g);
+        seq.traverse(1);
+        assertTrue(seq.vertexCount() > 1000);
+        ParallelBreadthFirstTraversal pBFS =
+            new ParallelBreadthFirstTraversal(g);
+        DirectionOptimizingTraversal dBFS =
+            new DirectionOptimizingTraversal(g);
+        pBFS.traverse(1);
+        dBFS.traverse(1);
+        assertTrue(pBFS.isFinished() && dBFS.isFinished());
+        assertEquals(seq.vertexCount(), pBFS.vertexCount());
+        assertEquals(seq.edgeCount(), pBFS.edgeCount());
+        assertEquals(seq.vertexCount(), dBFS.vertexCount());
+        assertTrue(dBFS.edgeCount() > 0);
+        assertTrue(pBFS.level(1) == 0 && pBFS.levelCount() > 1);
+
+        pBFS.clear();
+        dBFS.clear();
+        pBFS.start(1);
+        dBFS.start(1);
+        assertEquals(-1, pBFS.level(1));
+        assertEquals(0, pBFS.levelCount());
+        assertEquals(-1, dBFS.level(1));
+        assertEquals(0, dBFS.bottomUpSteps());
+        while (!pBFS.resume(100)) {
+            assertTrue(pBFS.vertexCount() < seq.vertexCount());
+        }
+        assertTrue(dBFS.resume(Integer.MAX_VALUE));
+        assertEquals(seq.vertexCount(), pBFS.vertexCount());
+        assertEquals(seq.edgeCount(), pBFS.edgeCount());
+        assertEquals(seq.edgeCount(), dBFS.edgeCount());
+    }
+
+    @Test
+    public void hopDistancesTest() {
+        Graph g = randomGraph(5000, 3);
+        int[] expected = bfsLevels(g, 11);
+        HopDistances hops = new HopDistances(g);
+        assertEquals(0, hops.search(11));
+        for (int v = 1; v <= 5000; v += 1) {
+            assertEquals(expected[v], hops.getDistance(v));
+            if (expected[v] > 0) {
+                int p = hops.getParent(v);
+                assertEquals(expected[v] - 1, expected[p]);
+                assertEquals(expected[v] + 1, hops.pathTo(v).size());
+            }
+        }
+        hops.setMaxHops(2);
+        hops.search(11);
+        for (int v : hops.reached()) {
+            assertTrue(expected[v] <= 2);
+        }
+        for (int v = 1; v <= 5000; v += 1) {
+            assertEquals(expected[v] >= 0 && expected[v] <= 2,
+                         hops.getDistance(v) >= 0);
+        }
+        hops.setMaxHops(Integer.MAX_VALUE);
+        int far = 11;
+        for (int v = 1; v <= 5000; v += 1) {
+            if (expected[v] > expected[far]) {
+                far = v;
+            }
+        }
+        hops.setTargets(Arrays.asList(far, 11));
+        assertEquals(11, hops.search(Arrays.asList(3, 11)));
+        hops.setTargets(Arrays.asList(far));
+        assertEquals(far, hops.search(11));
+        assertEquals(expected[far], hops.getDistance(far));
+        assertEquals(expected[far] + 1, hops.pathTo(far).size());
+        assertTrue(hops.reachedCount() < 5000);
+    }
+
+    @Test
+    public void hopDistancesErrorTest() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 1; i <= 5; i += 1) {
+            g.add();
+        }
+        for (int i = 1; i < 5; i += 1) {
+            g.add(i, i + 1);
+        }
+        HopDistances hops = new HopDistances(g);
+        try {
+            hops.search(Arrays.asList(1, 99));
+            fail("bad source accepted");
+        } catch (IllegalArgumentException excp) {
+            /* Expected. */
+        }
+        hops.search(4);
+        assertEquals(-1, hops.getDistance(1));
+        assertEquals(0, hops.getDistance(4));
+        assertEquals(1, hops.getDistance(5));
+        hops.setTargets(Arrays.asList(5));
+        g.remove(5);
+        hops.setTargets(Arrays.asList(3));
+        assertEquals(3, hops.search(1));
+        try {
+            hops.setTargets(Arrays.asList(2, 99));
+            fail("bad target accepted");
+        } catch (IllegalArgumentException excp) {
+            /* Expected. */
+        }
+        assertEquals(3, hops.search(1));
+        assertEquals(2, hops.getDistance(3));
+    }
+
+    @Test
+    public void neighborhoodsTest() {
+        UndirectedGraph g = new UndirectedGraph();
+        for (int i = 1; i <= 8; i += 1) {
+            g.add();
+        }
+        for (int i = 1; i < 6; i += 1) {
+            g.add(i, i + 1);
+        }
+        Neighborhoods nbhds = new Neighborhoods(g, 2);
+        int[] n32 = { 1, 2, 3, 4, 5 };
+        assertArrayEquals(n32, nbhds.within(3, 2));
+        assertArrayEquals(n32, nbhds.within(3, 2));
+        assertEquals(1, nbhds.hits());
+        assertEquals(1, nbhds.misses());
+        int[] n70 = { 7 };
+        assertArrayEquals(n70, nbhds.within(7, 0));
+        nbhds.within(1, 1);
+        assertEquals(2, nbhds.cachedCount());
+        nbhds.within(3, 2);
+        assertEquals(4, nbhds.misses());
+        g.add(6, 7);
+        int[] n71 = { 6, 7 };
+        assertArrayEquals(n71, nbhds.within(7, 1));
+        assertEquals(1, nbhds.cachedCount());
+        g.remove(6);
+        assertArrayEquals(n70, nbhds.within(7, 1));
+
+        final boolean[] hidden = new boolean[1];
+        final int[] changes = new int[1];
+        GraphFilter f = new GraphFilter(g) {
+            @Override
+            public Iteration<Integer> successors(int v) {
+                ArrayList<Integer> result = new ArrayList<>();
+                for (int w : super.successors(v)) {
+                    if (!hidden[0] || (v != 3 && w != 3)) {
+                        result.add(w);
+                    }
+                }
+                return Iteration.iteration(result);
+            }
+
+            @Override
+            protected int modCount() {
+                return super.modCount() + changes[0];
+            }
+        };
+        Neighborhoods fnbhds = new Neighborhoods(f, 2);
+        assertArrayEquals(n32, fnbhds.within(3, 2));
+        hidden[0] = true;
+        changes[0] += 1;
+        int[] n3 = { 3 };
+        assertArrayEquals(n3, fnbhds.within(3, 2));
+        assertEquals(0, fnbhds.hits());
+    }
+
+    @Test
+    public void sccTest() {
+        Graph g = new DirectedGraph();
+        for (int i = 1; i <= 9; i += 1) {
+            g.add();
+        }
+        int[][] edges = { { 1, 2 }, { 2, 3 }, { 3, 1 }, { 3, 4 }, { 4, 5 },
+                          { 5, 4 }, { 6, 5 }, { 6, 6 }, { 7, 8 }, { 2, 8 } };
+        for (int[] e : edges) {
+            g.add(e[0], e[1]);
+        }
+        g.remove(9);
+        StronglyConnectedComponents scc = new StronglyConnectedComponents(g);
+        assertEquals(5, scc.componentCount());
+        assertEquals(scc.component(1), scc.component(2));
+        assertEquals(scc.component(1), scc.component(3));
+        assertEquals(scc.component(4), scc.component(5));
+        assertEquals(0, scc.component(9));
+        for (int[] e : edges) {
+            assertTrue(scc.component(e[0]) <= scc.component(e[1]));
+        }
+        assertFalse(scc.isAcyclic());
+        DirectedGraph dag = scc.condensation();
+        assertEquals(5, dag.vertexSize());
+        assertEquals(4, dag.edgeSize());
+        assertTrue(dag.contains(scc.component(1), scc.component(4)));
+        assertTrue(dag.contains(scc.component(6), scc.component(4)));
+        assertTrue(dag.contains(scc.component(1), scc.component(8)));
+        assertTrue(new StronglyConnectedComponents(dag).isAcyclic());
+    }
+
+    @Test
+    public void deepSccTest() {
+        final int n = 200000;
+        Graph g = new DirectedGraph() {
+            @Override
+            public int maxVertex() {
+                return n;
+            }
+
+            @Override
+            public boolean contains(int v) {
+                return v >= 1 && v <= n;
+            }
+
+            @Override
+            public Iteration<Integer> successors(int v) {
+                if (v == n) {
+                    return Iteration.iteration(Arrays.asList(n / 2));
+                }
+                return Iteration.iteration(Arrays.asList(v + 1));
+            }
+        };
+        StronglyConnectedComponents scc = new StronglyConnectedComponents(g);
+        assertEquals(n / 2, scc.componentCount());
+        assertEquals(n / 2, scc.component(n));
+        assertEquals(n / 2, scc.component(n / 2));
+        assertEquals(1, scc.component(1));
+    }
+
+    @Test
+    public void topologicalSortTest() {
+        Graph g = new DirectedGraph();
+        for (int i = 1; i <= 7; i += 1) {
+            g.add();
+        }
+        int[][] edges = { { 1, 3 }, { 2, 3 }, { 3, 4 }, { 2, 5 }, { 5, 4 },
+                          { 4, 6 }, { 1, 6 } };
+        for (int[] e : edges) {
+            g.add(e[0], e[1]);
+        }
+        TopologicalSort sort = new TopologicalSort(g);
+        assertTrue(sort.isAcyclic());
+        assertNull(sort.cycle());
+        int[] order = sort.order();
+        assertEquals(7, order.length);
+        int[] pos = new int[8];
+        for (int i = 0; i < order.length; i += 1) {
+            pos[order[i]] = i;
+        }
+        for (int[] e : edges) {
+            assertTrue(pos[e[0]] < pos[e[1]]);
+        }
+        assertEquals(4, sort.levelCount());
+        assertArrayEquals(new int[] { 1, 2, 7 }, sort.level(0));
+        assertArrayEquals(new int[] { 3, 5 }, sort.level(1));
+        assertArrayEquals(new int[] { 4 }, sort.level(2));
+        assertArrayEquals(new int[] { 6 }, sort.level(3));
+
+        g.add(6, 5);
+        g.add(7, 7);
+        sort = new TopologicalSort(g);
+        assertFalse(sort.isAcyclic());
+        assertArrayEquals(new int[] { 1, 2, 3 }, sort.order());
+        int[] cycle = sort.cycle();
+        assertTrue(cycle.length > 0);
+        for (int i = 0; i < cycle.length; i += 1) {
+            assertTrue(g.contains(cycle[i], cycle[(i + 1) % cycle.length]));
+        }
+    }
+
+    @Test
+    public void connectivityTest() {
+        UndirectedGraph g = new UndirectedGraph();
+        for (int i = 1; i <= 6; i += 1) {
+            g.add();
+        }
+        assertEquals(6, g.componentCount());
+        g.add(1, 2);
+        g.add(3, 2);
+        g.add(4, 5);
+        assertEquals(3, g.componentCount());
+        assertTrue(g.connected(1, 3));
+        assertFalse(g.connected(1, 4));
+        assertFalse(g.connected(1, 7));
+        g.add(5, 3);
+        assertTrue(g.connected(1, 4));
+        g.remove(2, 3);
+        assertFalse(g.connected(1, 4));
+        assertTrue(g.connected(3, 4));
+        assertEquals(3, g.componentCount());
+        g.remove(6);
+        assertEquals(2, g.componentCount());
+        g.add();
+        g.add(6, 1);
+        assertTrue(g.connected(6, 2));
+        assertEquals(2, g.componentCount());
+    }
 
 }
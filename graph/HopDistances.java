@@ -0,0 +1,257 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/** Breadth-first search from a set of source vertices that records, for
+ *  each vertex reached, its distance in edges (hops) from the nearest
+ *  source and its parent on a shortest such path.  Distances and parents
+ *  are kept in int arrays indexed by vertex number that are reused from
+ *  one search to the next; only the entries for vertices reached by the
+ *  previous search are reset, so that a search costs time proportional to
+ *  the part of the graph it explores.
+ *
+ *  A search may be limited to a maximum number of hops, and may stop as
+ *  soon as it reaches any of a set of target vertices (as when looking for
+ *  the nearest of several facilities).  The search works on a snapshot of
+ *  the graph, which is retaken automatically when a graph from this
+ *  package changes.  For other graphs, call refresh() after changing the
+ *  graph.
+ *  @author Roland Li
+ */
+public class HopDistances {
+
+    /** Hop-distance searches over G. */
+    public HopDistances(Graph G) {
+        _G = G;
+        _maxHops = Integer.MAX_VALUE;
+        refresh();
+    }
+
+    /** Bring my snapshot of the graph up to date. */
+    public void refresh() {
+        _modCount = _G.modCount();
+        _adj = new Adjacency(_G);
+        int n = _adj.maxVertex() + 1;
+        _dist = new int[n];
+        Arrays.fill(_dist, -1);
+        _parent = new int[n];
+        _queue = new int[n];
+        _reached = 0;
+        _isTarget = new boolean[n];
+        if (_targets != null) {
+            for (int v : _targets) {
+                if (v < n) {
+                    _isTarget[v] = true;
+                }
+            }
+        }
+    }
+
+    /** Limit subsequent searches to vertices at most K hops from a source.
+     *  K must be non-negative. */
+    public void setMaxHops(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative hop limit");
+        }
+        _maxHops = k;
+    }
+
+    /** Stop subsequent searches as soon as they reach a vertex in
+     *  TARGETS.  If TARGETS is null or empty, searches run to completion. */
+    public void setTargets(Collection<Integer> targets) {
+        if (_G.modCount() != _modCount) {
+            refresh();
+        }
+        int[] marks;
+        if (targets == null || targets.isEmpty()) {
+            marks = null;
+        } else {
+            marks = new int[targets.size()];
+            int k = 0;
+            for (int v : targets) {
+                checkVertex(v);
+                marks[k] = v;
+                k += 1;
+            }
+        }
+        if (_targets != null) {
+            for (int v : _targets) {
+                if (v < _isTarget.length) {
+                    _isTarget[v] = false;
+                }
+            }
+        }
+        _targets = marks;
+        if (_targets != null) {
+            for (int v : _targets) {
+                _isTarget[v] = true;
+            }
+        }
+    }
+
+    /** Search from SOURCE.  Returns the target reached, or 0 if none. */
+    public int search(int source) {
+        prepare();
+        return explore(source);
+    }
+
+    /** Search from all of SOURCES at once.  Returns the target reached
+     *  (one nearest to some source), or 0 if none. */
+    public int search(Collection<Integer> sources) {
+        prepare();
+        int[] start = new int[sources.size()];
+        int k = 0;
+        for (int v : sources) {
+            start[k] = v;
+            k += 1;
+        }
+        return explore(start);
+    }
+
+    /** Returns the number of hops from the nearest source to V in the last
+     *  search, or -1 if V was not reached. */
+    public int getDistance(int v) {
+        return v >= 0 && v < _dist.length ? _dist[v] : -1;
+    }
+
+    /** Returns the vertex preceding V on a shortest path from a source in
+     *  the last search, or 0 if V is a source or was not reached. */
+    public int getParent(int v) {
+        return v >= 0 && v < _parent.length ? _parent[v] : 0;
+    }
+
+    /** Returns the hop distances of the last search, indexed by vertex
+     *  (see getDistance).  The array belongs to me and is overwritten by
+     *  the next search. */
+    public int[] distances() {
+        return _dist;
+    }
+
+    /** Returns the parents of the last search, indexed by vertex (see
+     *  getParent).  The array belongs to me and is overwritten by the
+     *  next search. */
+    public int[] parents() {
+        return _parent;
+    }
+
+    /** Returns the number of vertices reached by the last search. */
+    public int reachedCount() {
+        return _reached;
+    }
+
+    /** Returns the vertices reached by the last search, in order of
+     *  increasing distance. */
+    public int[] reached() {
+        return Arrays.copyOf(_queue, _reached);
+    }
+
+    /** Returns the vertices on a shortest path found by the last search
+     *  from a source to V, starting with the source, or an empty list if V
+     *  was not reached. */
+    public List<Integer> pathTo(int v) {
+        ArrayList<Integer> path = new ArrayList<>();
+        if (getDistance(v) < 0) {
+            return path;
+        }
+        for (int w = v; w != 0; w = _parent[w]) {
+            path.add(w);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /** Search from the vertices in SOURCES, assuming a cleared state.
+     *  Returns the target reached, or 0. */
+    private int explore(int... sources) {
+        int[] start = _adj.outStart, out = _adj.out;
+        int head, tail;
+        for (int s : sources) {
+            checkVertex(s);
+        }
+        tail = 0;
+        for (int s : sources) {
+            if (_dist[s] < 0) {
+                _dist[s] = 0;
+                _queue[tail] = s;
+                tail += 1;
+                if (_isTarget[s]) {
+                    _reached = tail;
+                    return s;
+                }
+            }
+        }
+        for (head = 0; head < tail; head += 1) {
+            int u = _queue[head];
+            int d = _dist[u];
+            if (d >= _maxHops) {
+                break;
+            }
+            for (int e = start[u]; e < start[u + 1]; e += 1) {
+                int v = out[e];
+                if (_dist[v] < 0) {
+                    _dist[v] = d + 1;
+                    _parent[v] = u;
+                    _queue[tail] = v;
+                    tail += 1;
+                    if (_isTarget[v]) {
+                        _reached = tail;
+                        return v;
+                    }
+                }
+            }
+        }
+        _reached = tail;
+        return 0;
+    }
+
+    /** Prepare for a new search, bringing my snapshot up to date if my
+     *  graph has changed, and otherwise resetting the entries for the
+     *  vertices reached by the last search. */
+    private void prepare() {
+        if (_G.modCount() != _modCount) {
+            refresh();
+            return;
+        }
+        for (int i = 0; i < _reached; i += 1) {
+            int v = _queue[i];
+            _dist[v] = -1;
+            _parent[v] = 0;
+        }
+        _reached = 0;
+    }
+
+    /** Throw an exception if V is out of the range of vertex numbers of my
+     *  snapshot. */
+    private void checkVertex(int v) {
+        if (v < 1 || v > _adj.maxVertex()) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+    }
+
+    /** The graph being searched. */
+    private final Graph _G;
+    /** Snapshot of _G. */
+    private Adjacency _adj;
+    /** Value of _G.modCount() when _adj was taken. */
+    private int _modCount;
+    /** Maximum number of hops explored. */
+    private int _maxHops;
+    /** Target vertices, or null if none. */
+    private int[] _targets;
+    /** True exactly for the vertices in _targets. */
+    private boolean[] _isTarget;
+    /** Hop distance of each vertex, or -1. */
+    private int[] _dist;
+    /** Parent of each vertex, or 0. */
+    private int[] _parent;
+    /** Vertices reached, in order of discovery (the BFS queue). */
+    private int[] _queue;
+    /** Number of vertices in _queue reached by the last search. */
+    private int _reached;
+}
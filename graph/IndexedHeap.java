@@ -0,0 +1,154 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A priority queue of vertices with double keys, allowing the key of a
+ *  queued vertex to be changed in place.  It is a 4-ary heap of vertex
+ *  numbers, with the key and heap position of each vertex held in arrays
+ *  indexed by vertex number, so that comparisons read cached keys and no
+ *  operation allocates storage (other than to grow for a vertex number
+ *  beyond any seen before).  Vertices with equal keys leave the queue in
+ *  increasing order of vertex number.
+ *  @author Roland Li
+ */
+class IndexedHeap extends VertexQueue {
+
+    /** An empty queue for vertices numbered 1 .. MAXVERTEX (or more). */
+    IndexedHeap(int maxVertex) {
+        int n = Math.max(maxVertex, 1) + 1;
+        _heap = new int[n];
+        _pos = new int[n];
+        _key = new double[n];
+    }
+
+    @Override
+    boolean isEmpty() {
+        return _size == 0;
+    }
+
+    @Override
+    int size() {
+        return _size;
+    }
+
+    @Override
+    boolean contains(int v) {
+        return v >= 0 && v < _pos.length && _pos[v] != 0;
+    }
+
+    /** Returns the key of queued vertex V. */
+    double key(int v) {
+        return _key[v];
+    }
+
+    /** Returns the queued vertex with the smallest key.  Assumes I am not
+     *  empty. */
+    int peek() {
+        return _heap[0];
+    }
+
+    @Override
+    void put(int v, double key) {
+        if (v >= _pos.length) {
+            int n = Math.max(v + 1, 2 * _pos.length);
+            _heap = Arrays.copyOf(_heap, n);
+            _pos = Arrays.copyOf(_pos, n);
+            _key = Arrays.copyOf(_key, n);
+        }
+        if (_pos[v] == 0) {
+            _key[v] = key;
+            _size += 1;
+            siftUp(v, _size - 1);
+        } else {
+            double old = _key[v];
+            _key[v] = key;
+            if (key < old) {
+                siftUp(v, _pos[v] - 1);
+            } else {
+                siftDown(v, _pos[v] - 1);
+            }
+        }
+    }
+
+    @Override
+    int poll() {
+        int top = _heap[0];
+        _pos[top] = 0;
+        _size -= 1;
+        if (_size > 0) {
+            siftDown(_heap[_size], 0);
+        }
+        return top;
+    }
+
+    @Override
+    void clear() {
+        for (int i = 0; i < _size; i += 1) {
+            _pos[_heap[i]] = 0;
+        }
+        _size = 0;
+    }
+
+    /** Returns true iff vertex U belongs before vertex V. */
+    private boolean before(int u, int v) {
+        double a = _key[u], b = _key[v];
+        return a < b || (a == b && u < v);
+    }
+
+    /** Place V at heap index K or above, moving larger ancestors down. */
+    private void siftUp(int v, int k) {
+        while (k > 0) {
+            int parent = (k - 1) / ARITY;
+            int p = _heap[parent];
+            if (!before(v, p)) {
+                break;
+            }
+            _heap[k] = p;
+            _pos[p] = k + 1;
+            k = parent;
+        }
+        _heap[k] = v;
+        _pos[v] = k + 1;
+    }
+
+    /** Place V at heap index K or below, moving smaller descendants up. */
+    private void siftDown(int v, int k) {
+        while (true) {
+            int first = ARITY * k + 1;
+            if (first >= _size) {
+                break;
+            }
+            int last = Math.min(first + ARITY, _size);
+            int best = first;
+            for (int c = first + 1; c < last; c += 1) {
+                if (before(_heap[c], _heap[best])) {
+                    best = c;
+                }
+            }
+            int b = _heap[best];
+            if (!before(b, v)) {
+                break;
+            }
+            _heap[k] = b;
+            _pos[b] = k + 1;
+            k = best;
+        }
+        _heap[k] = v;
+        _pos[v] = k + 1;
+    }
+
+    /** Number of children of each heap node. */
+    private static final int ARITY = 4;
+
+    /** The queued vertices, in heap order. */
+    private int[] _heap;
+    /** One more than the index in _heap of each vertex, or 0 if it is not
+     *  queued. */
+    private int[] _pos;
+    /** The key of each queued vertex. */
+    private double[] _key;
+    /** Number of queued vertices. */
+    private int _size;
+}
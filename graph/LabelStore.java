@@ -0,0 +1,197 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.HashMap;
+
+/** A mapping of positive integer keys (vertex numbers or edge ids) to
+ *  non-null labels of type T that keeps track of how many of its slots are
+ *  actually in use.  Labels are kept in a directly indexed array while the
+ *  keys are reasonably dense, and in a hash table when they are not.  After
+ *  removals, the store may compact itself (shrinking the array or switching
+ *  to the hash table) so that its footprint follows the number of live
+ *  labels rather than the largest key ever used.
+ *  @author Roland Li
+ */
+final class LabelStore<T> {
+
+    /** Never compact automatically while no more than this many slots are
+     *  wasted. */
+    static final int MIN_WASTE = 64;
+    /** Compact automatically once wasted slots exceed this multiple of the
+     *  number of live labels. */
+    static final int WASTE_RATIO = 3;
+    /** Compaction leaves room in the array for 1/HEADROOM more keys past
+     *  the largest. */
+    static final int HEADROOM = 4;
+
+    /** An empty store that compacts itself automatically. */
+    LabelStore() {
+        _slots = new Object[0];
+        _autoCompact = true;
+    }
+
+    /** Returns the label stored under K, or null if there is none. */
+    @SuppressWarnings("unchecked")
+    T get(int k) {
+        if (_sparse != null) {
+            return _sparse.get(k);
+        }
+        return k >= 0 && k < _slots.length ? (T) _slots[k] : null;
+    }
+
+    /** Store LAB under K, removing any label under K if LAB is null. */
+    void put(int k, T lab) {
+        if (lab == null) {
+            remove(k);
+            return;
+        }
+        if (_sparse != null) {
+            if (_sparse.put(k, lab) == null) {
+                _live += 1;
+            }
+            _limit = Math.max(_limit, k + 1);
+        } else {
+            if (k >= _slots.length) {
+                grow(k + 1);
+            }
+            if (_slots[k] == null) {
+                _live += 1;
+            }
+            _slots[k] = lab;
+            _limit = Math.max(_limit, k + 1);
+        }
+        maybeCompact();
+    }
+
+    /** Remove any label stored under K. */
+    void remove(int k) {
+        if (_sparse != null) {
+            if (_sparse.remove(k) != null) {
+                _live -= 1;
+            }
+        } else if (k >= 0 && k < _slots.length && _slots[k] != null) {
+            _slots[k] = null;
+            _live -= 1;
+            if (k + 1 == _limit) {
+                while (_limit > 0 && _slots[_limit - 1] == null) {
+                    _limit -= 1;
+                }
+            }
+        }
+        maybeCompact();
+    }
+
+    /** Returns the number of labels currently stored. */
+    int live() {
+        return _live;
+    }
+
+    /** Returns the number of slots currently allocated to hold labels. */
+    int allocated() {
+        return _sparse != null ? _sparse.size() : _slots.length;
+    }
+
+    /** Returns true iff labels are currently kept in a hash table rather
+     *  than a directly indexed array. */
+    boolean isSparse() {
+        return _sparse != null;
+    }
+
+    /** Turn automatic compaction on iff ON. */
+    void setAutoCompact(boolean on) {
+        _autoCompact = on;
+    }
+
+    /** Release unused storage: shrink the array to a little past the
+     *  largest live key (leaving room to append a few more without
+     *  regrowing), and move to (or back from) the hash table depending on
+     *  how densely the remaining keys occupy that array.  Moving back from
+     *  the hash table requires the keys to be twice as dense as moving to
+     *  it does, so that a store near the boundary does not flip-flop. */
+    void compact() {
+        if (_sparse != null) {
+            int limit = 0;
+            for (int k : _sparse.keySet()) {
+                limit = Math.max(limit, k + 1);
+            }
+            _limit = limit;
+            if (2L * _live >= limit) {
+                Object[] slots = new Object[limit];
+                for (HashMap.Entry<Integer, T> e : _sparse.entrySet()) {
+                    slots[e.getKey()] = e.getValue();
+                }
+                _sparse = null;
+                _slots = slots;
+            }
+        } else if (_limit - _live > MIN_WASTE
+                   && (long) _live * (WASTE_RATIO + 1) < _limit) {
+            _sparse = new HashMap<>();
+            for (int k = 0; k < _limit; k += 1) {
+                if (_slots[k] != null) {
+                    @SuppressWarnings("unchecked")
+                    T lab = (T) _slots[k];
+                    _sparse.put(k, lab);
+                }
+            }
+            _slots = new Object[0];
+        } else {
+            int n = _limit + _limit / HEADROOM;
+            if (_slots.length > n) {
+                Object[] slots = new Object[n];
+                System.arraycopy(_slots, 0, slots, 0, _limit);
+                _slots = slots;
+            }
+        }
+        _compactions += 1;
+    }
+
+    /** Returns the number of times I have been compacted. */
+    int compactions() {
+        return _compactions;
+    }
+
+    /** Compact me if automatic compaction is on and I waste too much
+     *  space: when my keys have become sparse enough for the hash table,
+     *  or when my array extends well past the largest key.  Space between
+     *  _limit and the end of the array that merely awaits appends (as
+     *  left by grow) does not count, so that alternately growing and
+     *  trimming cannot thrash. */
+    private void maybeCompact() {
+        if (_autoCompact) {
+            if (_sparse != null) {
+                if (2L * _live >= _limit) {
+                    compact();
+                }
+            } else {
+                int waste = _limit - _live;
+                if ((waste > MIN_WASTE && waste > WASTE_RATIO * _live)
+                    || (_slots.length - _live > MIN_WASTE
+                        && _slots.length > 2L * _limit)) {
+                    compact();
+                }
+            }
+        }
+    }
+
+    /** Enlarge my array to hold at least N slots. */
+    private void grow(int n) {
+        Object[] slots = new Object[Math.max(n, 2 * _slots.length)];
+        System.arraycopy(_slots, 0, slots, 0, _slots.length);
+        _slots = slots;
+    }
+
+    /** Directly indexed labels, when I am not sparse. */
+    private Object[] _slots;
+    /** One more than the largest key with a label.  When I am sparse, this
+     *  is only an upper bound, made exact by compaction. */
+    private int _limit;
+    /** Labels by key, when I am sparse, and otherwise null. */
+    private HashMap<Integer, T> _sparse;
+    /** Number of labels stored. */
+    private int _live;
+    /** True iff I compact myself when I waste too much space. */
+    private boolean _autoCompact;
+    /** Number of compactions so far. */
+    private int _compactions;
+}
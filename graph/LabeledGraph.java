@@ -2,8 +2,6 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.ArrayList;
-
 /** A Graph whose vertices are labeled with type VL and whose edges are
  *  labeled with type EL.
  *  @author P. N. Hilfinger
@@ -22,7 +20,7 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
      *  vertices. */
     public VL getLabel(int v) {
         checkMyVertex(v);
-        return v < _vlabel.size() ? _vlabel.get(v) : null;
+        return _vlabel.get(v);
     }
 
     /** Returns the label on the edge (U, V), which must be one of
@@ -32,7 +30,7 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         if (e == 0) {
             throw new IllegalArgumentException("no such edge");
         }
-        return e < _elabel.size() ? _elabel.get(e) : null;
+        return _elabel.get(e);
     }
 
     /** Return the successor of vertex U along the edge labeled LAB, if any,
@@ -50,10 +48,7 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
     /** Set getVertexLabel(V) to LAB.  V must be one of my vertices. */
     public void setLabel(int v, VL lab) {
         checkMyVertex(v);
-        if (lab != null || v < _vlabel.size()) {
-            expand(_vlabel, v + 1);
-            _vlabel.set(v, lab);
-        }
+        _vlabel.put(v, lab);
     }
 
     /** Set getEdgeLabel(U, V) to LAB. (U, V) must be one of my edges. */
@@ -62,10 +57,8 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         if (e == 0) {
             throw new IllegalArgumentException("no such edge");
         }
-        if (lab != null || e < _elabel.size()) {
-            expand(_elabel, e + 1);
-            _elabel.set(e, lab);
-        }
+        _elabel.put(e, lab);
+        _relabels += 1;
     }
 
     /** Returns a new vertex labeled LAB, and adds it to me with no
@@ -81,20 +74,27 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
      *  the edge is directed (leaves U and enters V). If there is already
      *  an edge (U, V), sets its label to EL. */
     public int add(int u, int v, EL lab) {
+        boolean relabel = contains(u, v);
         int e = add(u, v);
-        if (lab != null || e < _elabel.size()) {
-            expand(_elabel, e + 1);
-            _elabel.set(e, lab);
+        _elabel.put(e, lab);
+        if (relabel) {
+            _relabels += 1;
         }
         return e;
     }
 
     @Override
     public void remove(int v) {
-        super.remove(v);
-        if (v < _vlabel.size()) {
-            _vlabel.set(v, null);
+        if (contains(v)) {
+            for (int w : successors(v)) {
+                _elabel.remove(edgeId(v, w));
+            }
+            for (int w : predecessors(v)) {
+                _elabel.remove(edgeId(w, v));
+            }
         }
+        super.remove(v);
+        _vlabel.remove(v);
     }
 
     @Override
@@ -102,22 +102,55 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         int e = edgeId(u, v);
         if (e != 0) {
             super.remove(u, v);
-            if (e < _elabel.size()) {
-                _elabel.set(e, null);
-            }
+            _elabel.remove(e);
         }
     }
 
-    /** If necessary, add nulls to L to make its length N.  Has no effect if
-     *  L's length is already at least N. */
-    static void expand(ArrayList<?> L, int n) {
-        while (L.size() < n) {
-            L.add(null);
-        }
+    /** Release storage held for labels of removed vertices and edges. */
+    public void compactLabels() {
+        _vlabel.compact();
+        _elabel.compact();
+    }
+
+    /** Turn automatic compaction of label storage on iff ON (it is on
+     *  initially).  When on, label storage is compacted whenever the slots
+     *  it has allocated greatly outnumber the labels it holds. */
+    public void setAutoCompactLabels(boolean on) {
+        _vlabel.setAutoCompact(on);
+        _elabel.setAutoCompact(on);
+    }
+
+    /** Returns the number of vertex labels currently stored. */
+    public int liveVertexLabels() {
+        return _vlabel.live();
+    }
+
+    /** Returns the number of slots allocated for vertex labels. */
+    public int allocatedVertexLabelSlots() {
+        return _vlabel.allocated();
+    }
+
+    /** Returns the number of edge labels currently stored. */
+    public int liveEdgeLabels() {
+        return _elabel.live();
+    }
+
+    /** Returns the number of slots allocated for edge labels. */
+    public int allocatedEdgeLabelSlots() {
+        return _elabel.allocated();
+    }
+
+    /** Includes relabelings of edges, since edge labels often carry
+     *  weights. */
+    @Override
+    protected int modCount() {
+        return super.modCount() + _relabels;
     }
 
     /** Mapping of vertex numbers to vertex labels. */
-    private final ArrayList<VL> _vlabel = new ArrayList<>();
+    private final LabelStore<VL> _vlabel = new LabelStore<>();
     /** Mapping of unique edge ids to edge labels. */
-    private final ArrayList<EL> _elabel = new ArrayList<>();
+    private final LabelStore<EL> _elabel = new LabelStore<>();
+    /** Number of calls to setLabel for edges. */
+    private int _relabels;
 }
@@ -0,0 +1,381 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.Random;
+
+/** Landmark distance tables for the ALT (A*, landmarks, triangle
+ *  inequality) heuristic on a fixed edge-weighted graph.  Preprocessing
+ *  chooses K landmark vertices and records, for every vertex V and
+ *  landmark L, the distances d(L, V) and d(V, L) in primitive arrays.  By
+ *  the triangle inequality, d(U, V) is then at least both
+ *  d(U, L) - d(V, L) and d(L, V) - d(L, U), and lowerBound(U, V) returns
+ *  the largest such bound over all landmarks.  The bound is consistent,
+ *  so that it may serve as (part of) the estimatedDistance of a
+ *  ShortestPaths.
+ *
+ *  Landmarks are chosen by one of two strategies.  FARTHEST repeatedly
+ *  takes the vertex farthest from the landmarks already chosen.  AVOID
+ *  (Goldberg and Werneck) grows a shortest-path tree from a vertex,
+ *  weights each vertex by how much the current landmarks underestimate its
+ *  distance from the root, and descends to a leaf of the heaviest subtree
+ *  that contains no landmark; it usually gives tighter bounds.
+ *
+ *  Clients supply edge weights by overriding getWeight(U, V).  Weights
+ *  must be non-negative, and neither the graph nor its weights may change
+ *  after preprocessing.
+ *  @author Roland Li
+ */
+public abstract class Landmarks {
+
+    /** Strategies for choosing landmarks. */
+    public enum Strategy {
+        /** Choose each landmark farthest from those already chosen. */
+        FARTHEST,
+        /** Choose landmarks in the regions the current ones cover
+         *  worst. */
+        AVOID
+    }
+
+    /** Landmark tables for G, which must be preprocessed before use. */
+    public Landmarks(Graph G) {
+        _G = G;
+        _landmarks = new int[0];
+        _fromLandmark = _toLandmark = new double[0][];
+    }
+
+    /** Returns the weight of edge (U, V) of the graph. */
+    protected abstract double getWeight(int u, int v);
+
+    /** Choose (at most) K landmarks by STRATEGY and compute their distance
+     *  tables.  Fewer than K landmarks are chosen only if the graph has
+     *  fewer than K vertices. */
+    public void preprocess(int k, Strategy strategy) {
+        long start = System.nanoTime();
+        snapshot();
+        int n = _adj.maxVertex();
+        int vertices = 0;
+        for (int v = 1; v <= n; v += 1) {
+            if (_G.contains(v)) {
+                vertices += 1;
+            }
+        }
+        k = Math.min(k, vertices);
+        _landmarks = new int[k];
+        _fromLandmark = new double[k][];
+        _toLandmark = new double[k][];
+        _count = 0;
+        _queue = new IndexedHeap(n);
+        _parent = new int[n + 1];
+        _order = new int[n];
+        Random random = new Random(SEED);
+        while (_count < k) {
+            int l = strategy == Strategy.FARTHEST
+                ? farthest() : avoid(random);
+            _landmarks[_count] = l;
+            _fromLandmark[_count] = distances(l, true);
+            _toLandmark[_count] = distances(l, false);
+            _count += 1;
+        }
+        _queue = null;
+        _parent = _order = null;
+        _adj = null;
+        _outWeight = _inWeight = null;
+        _preprocessingNanos = System.nanoTime() - start;
+        resetStatistics();
+    }
+
+    /** Returns a lower bound on the weight of a shortest path from U to V
+     *  (0 if there are no landmarks, and positive infinity if the tables
+     *  show that V cannot be reached from U). */
+    public double lowerBound(int u, int v) {
+        _evaluations += 1;
+        if (!_timing) {
+            return bound(u, v);
+        }
+        long start = System.nanoTime();
+        double result = bound(u, v);
+        _evaluationNanos += System.nanoTime() - start;
+        return result;
+    }
+
+    /** Returns lowerBound(U, V), without recording statistics. */
+    private double bound(int u, int v) {
+        double best = 0.0;
+        for (int i = 0; i < _count; i += 1) {
+            double[] to = _toLandmark[i], from = _fromLandmark[i];
+            double a = to[u] - to[v], b = from[v] - from[u];
+            if (to[v] != INF) {
+                best = Math.max(best, a);
+            }
+            if (from[u] != INF) {
+                best = Math.max(best, b);
+            }
+        }
+        return best;
+    }
+
+    /** Returns the landmarks chosen, in order of choice. */
+    public int[] landmarks() {
+        return Arrays.copyOf(_landmarks, _count);
+    }
+
+    /** Returns the distance from the Ith landmark to V. */
+    public double distanceFrom(int i, int v) {
+        return _fromLandmark[i][v];
+    }
+
+    /** Returns the distance from V to the Ith landmark. */
+    public double distanceTo(int i, int v) {
+        return _toLandmark[i][v];
+    }
+
+    /** Returns the number of bytes occupied by my distance tables. */
+    public long tableBytes() {
+        long total = 0;
+        for (int i = 0; i < _count; i += 1) {
+            total += (long) Double.BYTES
+                * (_fromLandmark[i].length + _toLandmark[i].length);
+        }
+        return total;
+    }
+
+    /** Returns the time taken by the last preprocess, in nanoseconds. */
+    public long preprocessingNanos() {
+        return _preprocessingNanos;
+    }
+
+    /** Returns the number of calls to lowerBound since preprocessing or
+     *  the last resetStatistics. */
+    public long evaluations() {
+        return _evaluations;
+    }
+
+    /** Returns the total time spent in lowerBound while timing was on
+     *  since preprocessing or the last resetStatistics, in
+     *  nanoseconds. */
+    public long evaluationNanos() {
+        return _evaluationNanos;
+    }
+
+    /** Time each subsequent call to lowerBound (see evaluationNanos) iff
+     *  ON.  Timing is off by default, since reading the clock may cost as
+     *  much as the bound itself. */
+    public void setTiming(boolean on) {
+        _timing = on;
+    }
+
+    /** Reset the count of evaluations and their time to 0. */
+    public void resetStatistics() {
+        _evaluations = 0;
+        _evaluationNanos = 0;
+    }
+
+    /** Take a snapshot of the graph and the weights of its edges in both
+     *  directions. */
+    private void snapshot() {
+        _adj = new Adjacency(_G);
+        _adj.ensurePredecessors();
+        int n = _adj.maxVertex();
+        _outWeight = new double[_adj.out.length];
+        _inWeight = new double[_adj.in.length];
+        for (int u = 1; u <= n; u += 1) {
+            for (int e = _adj.outStart[u]; e < _adj.outStart[u + 1];
+                 e += 1) {
+                _outWeight[e] = getWeight(u, _adj.out[e]);
+            }
+            for (int e = _adj.inStart[u]; e < _adj.inStart[u + 1];
+                 e += 1) {
+                _inWeight[e] = getWeight(_adj.in[e], u);
+            }
+        }
+    }
+
+    /** Returns the distances from SOURCE to all vertices if FORWARD, and
+     *  otherwise from all vertices to SOURCE, indexed by vertex, with
+     *  positive infinity for vertices not reached.  Also sets _parent to
+     *  the shortest-path tree and _order to the vertices reached in order
+     *  of distance, with _reached the number of them. */
+    private double[] distances(int source, boolean forward) {
+        int[] start = forward ? _adj.outStart : _adj.inStart;
+        int[] adj = forward ? _adj.out : _adj.in;
+        double[] weight = forward ? _outWeight : _inWeight;
+        double[] dist = new double[_adj.maxVertex() + 1];
+        Arrays.fill(dist, INF);
+        dist[source] = 0.0;
+        _parent[source] = 0;
+        _reached = 0;
+        _queue.put(source, 0.0);
+        while (!_queue.isEmpty()) {
+            int u = _queue.poll();
+            _order[_reached] = u;
+            _reached += 1;
+            for (int e = start[u]; e < start[u + 1]; e += 1) {
+                int v = adj[e];
+                double d = dist[u] + weight[e];
+                if (d < dist[v]) {
+                    dist[v] = d;
+                    _parent[v] = u;
+                    _queue.put(v, d);
+                }
+            }
+        }
+        return dist;
+    }
+
+    /** Returns the vertex farthest from the current landmarks (in both
+     *  directions), preferring vertices that cannot reach or be reached
+     *  from them.  The first landmark is the vertex farthest from the
+     *  lowest-numbered vertex. */
+    private int farthest() {
+        int n = _adj.maxVertex();
+        int best = 0;
+        double bestDist = -1.0;
+        double[] first = null;
+        if (_count == 0) {
+            best = unreachedOrAny(null);
+            first = distances(best, true);
+        }
+        for (int v = 1; v <= n; v += 1) {
+            if (!_G.contains(v) || isLandmark(v)) {
+                continue;
+            }
+            double d;
+            if (first != null) {
+                d = first[v] < INF ? first[v] : -1.0;
+            } else {
+                d = INF;
+                for (int i = 0; i < _count; i += 1) {
+                    d = Math.min(d, _fromLandmark[i][v] + _toLandmark[i][v]);
+                }
+            }
+            if (d > bestDist) {
+                best = v;
+                bestDist = d;
+            }
+        }
+        return best;
+    }
+
+    /** Returns a landmark chosen by the avoid strategy, using RANDOM to
+     *  choose the root of the shortest-path tree. */
+    private int avoid(Random random) {
+        int n = _adj.maxVertex();
+        int root;
+        do {
+            root = 1 + random.nextInt(n);
+        } while (!_G.contains(root));
+        double[] dist = distances(root, true);
+        double[] size = new double[n + 1];
+        boolean[] blocked = new boolean[n + 1];
+        for (int i = _reached - 1; i >= 0; i -= 1) {
+            int v = _order[i];
+            if (isLandmark(v)) {
+                blocked[v] = true;
+            }
+            if (!blocked[v]) {
+                size[v] += dist[v] - bound(root, v);
+            } else {
+                size[v] = 0.0;
+            }
+            int p = _parent[v];
+            if (p != 0) {
+                size[p] += size[v];
+                blocked[p] |= blocked[v];
+            }
+        }
+        int w = root;
+        for (int i = 0; i < _reached; i += 1) {
+            int v = _order[i];
+            if (size[v] > size[w]) {
+                w = v;
+            }
+        }
+        if (size[w] == 0.0) {
+            return unreachedOrAny(dist);
+        }
+        while (true) {
+            int next = 0;
+            for (int e = _adj.outStart[w]; e < _adj.outStart[w + 1];
+                 e += 1) {
+                int c = _adj.out[e];
+                if (_parent[c] == w && c != root && dist[c] < INF
+                    && (next == 0 || size[c] > size[next])) {
+                    next = c;
+                }
+            }
+            if (next == 0 || size[next] == 0.0) {
+                return w;
+            }
+            w = next;
+        }
+    }
+
+    /** Returns a non-landmark vertex with DIST positive infinity, if any
+     *  (and DIST is not null), and otherwise the lowest-numbered
+     *  non-landmark vertex. */
+    private int unreachedOrAny(double[] dist) {
+        int n = _adj.maxVertex();
+        int any = 0;
+        for (int v = 1; v <= n; v += 1) {
+            if (_G.contains(v) && !isLandmark(v)) {
+                if (dist != null && dist[v] == INF) {
+                    return v;
+                }
+                if (any == 0) {
+                    any = v;
+                }
+            }
+        }
+        return any;
+    }
+
+    /** Returns true iff V is one of the landmarks chosen so far. */
+    private boolean isLandmark(int v) {
+        for (int i = 0; i < _count; i += 1) {
+            if (_landmarks[i] == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Positive infinity. */
+    private static final double INF = Double.POSITIVE_INFINITY;
+    /** Seed for choosing roots in the avoid strategy. */
+    private static final long SEED = 44;
+
+    /** The graph. */
+    private final Graph _G;
+    /** The landmarks. */
+    private int[] _landmarks;
+    /** Number of landmarks. */
+    private int _count;
+    /** Distances from each landmark, indexed by landmark and vertex. */
+    private double[][] _fromLandmark;
+    /** Distances to each landmark, indexed by landmark and vertex. */
+    private double[][] _toLandmark;
+    /** Time taken by preprocessing. */
+    private long _preprocessingNanos;
+    /** Calls to lowerBound. */
+    private long _evaluations;
+    /** True iff calls to lowerBound are timed. */
+    private boolean _timing;
+    /** Time spent in timed calls to lowerBound. */
+    private long _evaluationNanos;
+
+    /** During preprocessing, a snapshot of the graph. */
+    private Adjacency _adj;
+    /** During preprocessing, the weights of the edges of _adj. */
+    private double[] _outWeight, _inWeight;
+    /** During preprocessing, the queue for Dijkstra's algorithm. */
+    private IndexedHeap _queue;
+    /** During preprocessing, the shortest-path tree of the last search. */
+    private int[] _parent;
+    /** During preprocessing, the vertices reached by the last search, in
+     *  order of distance. */
+    private int[] _order;
+    /** Number of vertices in _order. */
+    private int _reached;
+}
@@ -0,0 +1,97 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Answers queries of the form "which vertices are within K hops of V?"
+ *  over a graph that changes rarely.  Results are sorted int arrays.  The
+ *  most recently used results are kept in a cache of bounded size, keyed
+ *  by (V, K), so that repeated queries are answered without traversing the
+ *  graph.  The cache is discarded whenever the modCount of the graph
+ *  changes (see Graph.modCount).  For graphs that do not report every
+ *  change there, clients should call invalidate() after changing the
+ *  graph.
+ *  @author Roland Li
+ */
+public class Neighborhoods {
+
+    /** Default maximum number of cached results. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** Neighborhood queries over G, caching up to DEFAULT_CAPACITY
+     *  results. */
+    public Neighborhoods(Graph G) {
+        this(G, DEFAULT_CAPACITY);
+    }
+
+    /** Neighborhood queries over G, caching up to CAPACITY results. */
+    public Neighborhoods(Graph G, final int capacity) {
+        _G = G;
+        _hops = new HopDistances(G);
+        _modCount = G.modCount();
+        _cache = new LinkedHashMap<Long, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> e) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** Returns the vertices at most K edges away from V (including V
+     *  itself), in increasing order.  V must be a vertex of my graph. */
+    public int[] within(int v, int k) {
+        if (_G.modCount() != _modCount) {
+            invalidate();
+        }
+        long key = ((long) v << Integer.SIZE) | (k & 0xffffffffL);
+        int[] result = _cache.get(key);
+        if (result != null) {
+            _hits += 1;
+        } else {
+            _misses += 1;
+            _hops.setMaxHops(k);
+            _hops.search(v);
+            result = _hops.reached();
+            Arrays.sort(result);
+            _cache.put(key, result);
+        }
+        return result.clone();
+    }
+
+    /** Discard all cached results. */
+    public void invalidate() {
+        _cache.clear();
+        _hops.refresh();
+        _modCount = _G.modCount();
+    }
+
+    /** Returns the number of results currently cached. */
+    public int cachedCount() {
+        return _cache.size();
+    }
+
+    /** Returns the number of queries answered from the cache. */
+    public long hits() {
+        return _hits;
+    }
+
+    /** Returns the number of queries that required a traversal. */
+    public long misses() {
+        return _misses;
+    }
+
+    /** The graph being queried. */
+    private final Graph _G;
+    /** Searches over _G. */
+    private final HopDistances _hops;
+    /** Cached results, keyed by vertex (high half) and hop count, in
+     *  order of use. */
+    private final LinkedHashMap<Long, int[]> _cache;
+    /** Value of _G.modCount() when the cache was last valid. */
+    private int _modCount;
+    /** Counts of cached and uncached queries. */
+    private long _hits, _misses;
+}
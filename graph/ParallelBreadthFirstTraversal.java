@@ -0,0 +1,259 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** A breadth-first traversal that expands each level of the traversal in
+ *  parallel.  Vertices are processed one level (set of vertices at the
+ *  same hop distance from the starting vertices) at a time: the successors
+ *  of all vertices in the current level are scanned by tasks in a
+ *  ForkJoinPool, each of which claims unvisited vertices for the next level
+ *  with atomic operations on a shared bitset.  The resulting levels and set
+ *  of visited vertices are the same as for a sequential
+ *  BreadthFirstTraversal.
+ *
+ *  The visit method is called on the client's thread, level by level, but
+ *  the order of vertices within a level is unspecified.  Successors are
+ *  always added to the next level when unmarked: processSuccessors and
+ *  processSuccessor are not consulted.  The graph must not change during a
+ *  traversal.  Traversals read a snapshot of the graph, taken when first
+ *  needed and retaken when the modCount of the graph changes (see
+ *  Graph.modCount); for graphs that do not report every change there,
+ *  call refresh() after a change.  Apart from that, and from copying the
+ *  marks (as one bit per vertex), the work done on the client's thread is
+ *  proportional to the vertices visited.
+ *
+ *  Only traverse runs in parallel and records levels.  The slices run by
+ *  start and resume are those of a sequential BreadthFirstTraversal, after
+ *  which level and levelCount report no levels.  Either way,
+ *  vertexCount and edgeCount measure the work done.
+ *  @author Roland Li
+ */
+public class ParallelBreadthFirstTraversal extends BreadthFirstTraversal {
+
+    /** A parallel breadth-first Traversal of G using the common
+     *  ForkJoinPool. */
+    protected ParallelBreadthFirstTraversal(Graph G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /** A parallel breadth-first Traversal of G whose tasks run in POOL. */
+    protected ParallelBreadthFirstTraversal(Graph G, ForkJoinPool pool) {
+        super(G);
+        _pool = pool;
+        _level = new int[0];
+    }
+
+    @Override
+    public void traverse(Collection<Integer> V0) {
+        startProgress();
+        Graph G = graph();
+        if (_adj == null || G.modCount() != _modCount) {
+            _modCount = G.modCount();
+            _adj = new Adjacency(G);
+        }
+        int n = _adj.maxVertex();
+        _visited = new AtomicLongArray(markedWords(n));
+        resetLevels(n);
+        try {
+            expand(V0);
+        } finally {
+            finish();
+            _visited = null;
+        }
+    }
+
+    /** Retake my snapshot of the graph before the next traversal. */
+    public void refresh() {
+        _adj = null;
+    }
+
+    /** Set the levels of all vertices numbered up to N to -1, in time
+     *  proportional to the number reached by the last traversal if
+     *  possible. */
+    private void resetLevels(int n) {
+        if (_level.length != n + 1) {
+            _level = new int[n + 1];
+            Arrays.fill(_level, -1);
+            _reached = new int[n + 1];
+        } else {
+            for (int i = 0; i < _reachedCount; i += 1) {
+                _level[_reached[i]] = -1;
+            }
+        }
+        _reachedCount = 0;
+        _levels = 0;
+    }
+
+    /** Traverse from the vertices in V0, level by level. */
+    private void expand(Collection<Integer> V0) {
+        int n = _adj.maxVertex();
+        int[] frontier = new int[V0.size()];
+        int size = 0;
+        for (int v : V0) {
+            if (v >= 1 && v <= n && claim(v)) {
+                frontier[size] = v;
+                size += 1;
+            }
+        }
+        while (size > 0) {
+            for (int i = 0; i < size; i += 1) {
+                int v = frontier[i];
+                _level[v] = _levels;
+                _reached[_reachedCount] = v;
+                _reachedCount += 1;
+                mark(v);
+                countVertex();
+                if (!visit(v)) {
+                    return;
+                }
+            }
+            _levels += 1;
+            if (size < PARALLEL_THRESHOLD) {
+                Chunk all = new Chunk(frontier, 0, size);
+                all.compute();
+                countEdges(all._edges);
+                frontier = all._next;
+                size = all._size;
+            } else {
+                int chunks = Math.min(size / GRAIN + 1,
+                                      4 * _pool.getParallelism());
+                ArrayList<Chunk> tasks = new ArrayList<>(chunks);
+                for (int c = 0; c < chunks; c += 1) {
+                    tasks.add(new Chunk(frontier,
+                                        (int) ((long) size * c / chunks),
+                                        (int) ((long) size * (c + 1)
+                                               / chunks)));
+                }
+                _pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                });
+                int total = 0;
+                for (Chunk task : tasks) {
+                    total += task._size;
+                    countEdges(task._edges);
+                }
+                int[] next = new int[total];
+                total = 0;
+                for (Chunk task : tasks) {
+                    System.arraycopy(task._next, 0, next, total, task._size);
+                    total += task._size;
+                }
+                frontier = next;
+                size = total;
+            }
+        }
+    }
+
+    /** Forget the levels of the last traversal, and prepare for a
+     *  sequential traversal from V0 by resume. */
+    @Override
+    public void start(Collection<Integer> V0) {
+        _level = new int[0];
+        _levels = _reachedCount = 0;
+        super.start(V0);
+    }
+
+    /** Returns the level (number of edges from the nearest starting
+     *  vertex) at which V was reached by the last traversal, or -1 if it
+     *  was not reached. */
+    public int level(int v) {
+        return v >= 0 && v < _level.length ? _level[v] : -1;
+    }
+
+    /** Returns the number of levels reached by the last traversal. */
+    public int levelCount() {
+        return _levels;
+    }
+
+    /** Atomically mark V as visited, returning true iff it was not already
+     *  so marked. */
+    private boolean claim(int v) {
+        int k = v >> 6;
+        long bit = 1L << (v & 63);
+        while (true) {
+            long word = _visited.get(k);
+            if ((word & bit) != 0) {
+                return false;
+            }
+            if (_visited.compareAndSet(k, word, word | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /** A task that expands part of a level, collecting the vertices it
+     *  claims for the next level. */
+    private class Chunk extends RecursiveAction {
+        /** A task expanding FRONTIER[LO .. HI-1]. */
+        Chunk(int[] frontier, int lo, int hi) {
+            _frontier = frontier;
+            _lo = lo;
+            _hi = hi;
+            _next = new int[INIT_CHUNK];
+        }
+
+        @Override
+        protected void compute() {
+            int[] start = _adj.outStart, out = _adj.out;
+            for (int i = _lo; i < _hi; i += 1) {
+                int u = _frontier[i];
+                _edges += start[u + 1] - start[u];
+                for (int k = start[u]; k < start[u + 1]; k += 1) {
+                    int v = out[k];
+                    if (claim(v)) {
+                        if (_size == _next.length) {
+                            _next = Arrays.copyOf(_next, 2 * _size);
+                        }
+                        _next[_size] = v;
+                        _size += 1;
+                    }
+                }
+            }
+        }
+
+        /** The level being expanded. */
+        private final int[] _frontier;
+        /** Bounds of my part of _frontier. */
+        private final int _lo, _hi;
+        /** Vertices claimed for the next level. */
+        private int[] _next;
+        /** Number of vertices in _next. */
+        private int _size;
+        /** Number of edges examined. */
+        private long _edges;
+    }
+
+    /** Levels smaller than this are expanded sequentially. */
+    private static final int PARALLEL_THRESHOLD = 1024;
+    /** Approximate minimum number of vertices expanded per task. */
+    private static final int GRAIN = 256;
+    /** Initial size of a task's output buffer. */
+    private static final int INIT_CHUNK = 64;
+
+    /** Pool in which expansion tasks run. */
+    private final ForkJoinPool _pool;
+    /** Snapshot of the graph, or null if none has been taken. */
+    private Adjacency _adj;
+    /** Value of graph().modCount() when _adj was taken. */
+    private int _modCount;
+    /** Visited vertices during a traversal, as a bitset. */
+    private AtomicLongArray _visited;
+    /** Level of each vertex in the last traversal, or -1. */
+    private int[] _level;
+    /** Number of levels in the last traversal. */
+    private int _levels;
+    /** Vertices reached by the last traversal, in order. */
+    private int[] _reached;
+    /** Number of vertices in _reached. */
+    private int _reachedCount;
+}
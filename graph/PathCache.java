@@ -0,0 +1,143 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/** A cache of shortest paths between pairs of vertices, for clients that
+ *  see many repeated queries.  Clients supply the search by overriding
+ *  findPath; path(SOURCE, DEST) returns the cached result for
+ *  (SOURCE, DEST) if there is one, and otherwise calls findPath and caches
+ *  its result.  Paths are stored as int arrays.
+ *
+ *  The cache is bounded both by the number of paths and by the total
+ *  number of vertices in them; when either bound is exceeded, the least
+ *  recently used paths are discarded.  All paths are discarded whenever
+ *  the modCount of the graph changes (see Graph.modCount), as it does
+ *  for every change to a graph from this package (including, for a
+ *  LabeledGraph, when an edge is relabeled).  Clients whose graphs or
+ *  weights change in other ways should call invalidate().
+ *  @author Roland Li
+ */
+public abstract class PathCache {
+
+    /** Default maximum number of cached paths. */
+    public static final int DEFAULT_MAX_PATHS = 1024;
+    /** Default maximum total number of vertices in cached paths. */
+    public static final long DEFAULT_MAX_VERTICES = 1 << 20;
+
+    /** A cache of paths in G with the default bounds. */
+    public PathCache(Graph G) {
+        this(G, DEFAULT_MAX_PATHS, DEFAULT_MAX_VERTICES);
+    }
+
+    /** A cache of paths in G holding at most MAXPATHS paths having at most
+     *  MAXVERTICES vertices in all. */
+    public PathCache(Graph G, int maxPaths, long maxVertices) {
+        if (maxPaths < 0 || maxVertices < 0) {
+            throw new IllegalArgumentException("negative cache bound");
+        }
+        _G = G;
+        _maxPaths = maxPaths;
+        _maxVertices = maxVertices;
+        _modCount = G.modCount();
+        _cache = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /** Returns the vertices of a shortest path from SOURCE to DEST,
+     *  starting with SOURCE and ending with DEST (or as findPath returns
+     *  when there is no such path). */
+    protected abstract List<Integer> findPath(int source, int dest);
+
+    /** Returns the vertices of a shortest path from SOURCE to DEST, as
+     *  given by findPath, from the cache if possible.  The result belongs
+     *  to the caller. */
+    public int[] path(int source, int dest) {
+        if (_G.modCount() != _modCount) {
+            invalidate();
+        }
+        long key = ((long) source << Integer.SIZE) | (dest & 0xffffffffL);
+        int[] result = _cache.get(key);
+        if (result != null) {
+            _hits += 1;
+            return result.clone();
+        }
+        _misses += 1;
+        List<Integer> found = findPath(source, dest);
+        result = new int[found.size()];
+        int k = 0;
+        for (int v : found) {
+            result[k] = v;
+            k += 1;
+        }
+        if (result.length <= _maxVertices && _maxPaths > 0) {
+            _cache.put(key, result);
+            _vertices += result.length;
+            evict();
+        }
+        return result.clone();
+    }
+
+    /** Discard all cached paths. */
+    public void invalidate() {
+        _cache.clear();
+        _vertices = 0;
+        _modCount = _G.modCount();
+    }
+
+    /** Returns the number of paths currently cached. */
+    public int cachedCount() {
+        return _cache.size();
+    }
+
+    /** Returns the total number of vertices in the paths currently
+     *  cached. */
+    public long cachedVertices() {
+        return _vertices;
+    }
+
+    /** Returns the number of queries answered from the cache. */
+    public long hits() {
+        return _hits;
+    }
+
+    /** Returns the number of queries that required a search. */
+    public long misses() {
+        return _misses;
+    }
+
+    /** Returns the number of paths discarded to keep within the bounds. */
+    public long evictions() {
+        return _evictions;
+    }
+
+    /** Discard least recently used paths until I am within my bounds. */
+    private void evict() {
+        Iterator<int[]> eldest = _cache.values().iterator();
+        while (_cache.size() > _maxPaths || _vertices > _maxVertices) {
+            _vertices -= eldest.next().length;
+            eldest.remove();
+            _evictions += 1;
+        }
+    }
+
+    /** The graph whose paths are cached. */
+    private final Graph _G;
+    /** Maximum number of cached paths. */
+    private final int _maxPaths;
+    /** Maximum total number of vertices in cached paths. */
+    private final long _maxVertices;
+    /** Cached paths, keyed by source (high half) and destination, in order
+     *  of use. */
+    private final LinkedHashMap<Long, int[]> _cache;
+    /** Total number of vertices in cached paths. */
+    private long _vertices;
+    /** Value of _G.modCount() when the cache was last valid. */
+    private int _modCount;
+    /** Counts of cached and uncached queries. */
+    private long _hits, _misses;
+    /** Number of paths evicted. */
+    private long _evictions;
+}
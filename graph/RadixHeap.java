@@ -0,0 +1,166 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A monotone priority queue of vertices with non-negative integer keys:
+ *  a radix heap.  Entries are kept in 65 buckets, bucket B holding keys
+ *  whose highest bit differing from the last key removed is bit B - 1
+ *  (bucket 0 holding keys equal to it).  Removing a vertex when bucket 0
+ *  is empty redistributes the first non-empty bucket, and since each
+ *  entry can only move to lower-numbered buckets, the amortized cost of
+ *  an operation is O(log C) for keys up to C, without comparisons of keys
+ *  on insertion.
+ *
+ *  Keys are truncated to integers, and a key less than the last key
+ *  removed is treated as equal to it, since the queue must be monotone.
+ *  Changing the key of a queued vertex adds a new entry and leaves the old
+ *  one to be discarded when it is reached.  Vertices with equal keys leave
+ *  the queue in no particular order.
+ *  @author Roland Li
+ */
+class RadixHeap extends VertexQueue {
+
+    /** An empty queue for vertices numbered 1 .. MAXVERTEX (or more). */
+    RadixHeap(int maxVertex) {
+        int n = Math.max(maxVertex, 1) + 1;
+        _key = new long[n];
+        _queued = new boolean[n];
+        _vertices = new int[BUCKETS][];
+        _keys = new long[BUCKETS][];
+        _sizes = new int[BUCKETS];
+        for (int b = 0; b < BUCKETS; b += 1) {
+            _vertices[b] = new int[INIT_BUCKET];
+            _keys[b] = new long[INIT_BUCKET];
+        }
+    }
+
+    @Override
+    boolean isEmpty() {
+        return _live == 0;
+    }
+
+    @Override
+    int size() {
+        return _live;
+    }
+
+    @Override
+    boolean contains(int v) {
+        return v >= 0 && v < _queued.length && _queued[v];
+    }
+
+    @Override
+    void put(int v, double key) {
+        if (v >= _queued.length) {
+            int n = Math.max(v + 1, 2 * _queued.length);
+            _key = Arrays.copyOf(_key, n);
+            _queued = Arrays.copyOf(_queued, n);
+        }
+        long k = Math.max((long) key, _last);
+        if (_queued[v] && _key[v] == k) {
+            return;
+        }
+        if (!_queued[v]) {
+            _queued[v] = true;
+            _live += 1;
+        }
+        _key[v] = k;
+        insert(v, k);
+    }
+
+    @Override
+    int poll() {
+        while (true) {
+            if (_sizes[0] == 0) {
+                redistribute();
+                continue;
+            }
+            _sizes[0] -= 1;
+            int v = _vertices[0][_sizes[0]];
+            long k = _keys[0][_sizes[0]];
+            if (_queued[v] && _key[v] == k) {
+                _queued[v] = false;
+                _live -= 1;
+                return v;
+            }
+        }
+    }
+
+    @Override
+    void clear() {
+        for (int b = 0; b < BUCKETS; b += 1) {
+            for (int i = 0; i < _sizes[b]; i += 1) {
+                _queued[_vertices[b][i]] = false;
+            }
+            _sizes[b] = 0;
+        }
+        _live = 0;
+        _last = 0;
+    }
+
+    /** Returns the bucket for key K. */
+    private int bucket(long k) {
+        return Long.SIZE - Long.numberOfLeadingZeros(k ^ _last);
+    }
+
+    /** Add an entry for vertex V with key K to its bucket. */
+    private void insert(int v, long k) {
+        int b = bucket(k);
+        int size = _sizes[b];
+        if (size == _vertices[b].length) {
+            _vertices[b] = Arrays.copyOf(_vertices[b], 2 * size);
+            _keys[b] = Arrays.copyOf(_keys[b], 2 * size);
+        }
+        _vertices[b][size] = v;
+        _keys[b][size] = k;
+        _sizes[b] = size + 1;
+    }
+
+    /** Make the smallest key in the first non-empty bucket the last key
+     *  removed, and move the current entries of that bucket to their new
+     *  buckets, discarding stale ones.  Assumes that some bucket is
+     *  non-empty. */
+    private void redistribute() {
+        int b;
+        for (b = 1; _sizes[b] == 0; b += 1) {
+            continue;
+        }
+        int[] vertices = _vertices[b];
+        long[] keys = _keys[b];
+        int size = _sizes[b];
+        long min = keys[0];
+        for (int i = 1; i < size; i += 1) {
+            min = Math.min(min, keys[i]);
+        }
+        _last = min;
+        _sizes[b] = 0;
+        for (int i = 0; i < size; i += 1) {
+            int v = vertices[i];
+            if (_queued[v] && _key[v] == keys[i]) {
+                insert(v, keys[i]);
+            }
+        }
+    }
+
+    /** Number of buckets. */
+    private static final int BUCKETS = Long.SIZE + 1;
+    /** Initial capacity of each bucket. */
+    private static final int INIT_BUCKET = 4;
+
+    /** The current key of each queued vertex. */
+    private long[] _key;
+    /** True for each queued vertex. */
+    private boolean[] _queued;
+    /** The vertices of the entries in each bucket. */
+    private final int[][] _vertices;
+    /** The keys of the entries in each bucket. */
+    private final long[][] _keys;
+    /** Number of entries in each bucket. */
+    private final int[] _sizes;
+    /** Number of queued vertices. */
+    private int _live;
+    /** The last key removed (initially 0). */
+    private long _last;
+}
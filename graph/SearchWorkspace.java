@@ -0,0 +1,217 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** The working storage for a shortest-path search: tentative distances,
+ *  predecessors, cached heuristic potentials, and settled flags, indexed
+ *  by vertex, and a priority queue.  A workspace may be reused for any
+ *  number of searches, growing as needed to hold larger vertex numbers.
+ *  It records the vertices each search touches, so that reset takes time
+ *  proportional to the size of the previous search rather than to the
+ *  size of the graph.  A thread that runs many short searches over a
+ *  large graph should therefore keep one workspace and pass it to each
+ *  (see SimpleShortestPaths).  A workspace may be used by only one thread
+ *  at a time.
+ *  @author Roland Li
+ */
+public final class SearchWorkspace {
+
+    /** An empty workspace. */
+    public SearchWorkspace() {
+        this(0);
+    }
+
+    /** A workspace for vertices numbered 1 .. MAXVERTEX (or more). */
+    public SearchWorkspace(int maxVertex) {
+        int n = Math.max(maxVertex, 0) + 1;
+        _dist = new double[n];
+        Arrays.fill(_dist, Double.POSITIVE_INFINITY);
+        _pred = new int[n];
+        _potential = new double[n];
+        Arrays.fill(_potential, Double.NaN);
+        _settled = new boolean[n];
+        _seen = new boolean[n];
+        _touched = new int[n];
+        queue = new IndexedHeap(maxVertex);
+    }
+
+    /** Returns the largest vertex number I can hold. */
+    int maxVertex() {
+        return _dist.length - 1;
+    }
+
+    /** Grow as needed to hold vertices numbered up to MAXVERTEX. */
+    void ensureCapacity(int maxVertex) {
+        int old = _dist.length;
+        if (maxVertex >= old) {
+            int n = Math.max(maxVertex + 1, 2 * old);
+            _dist = Arrays.copyOf(_dist, n);
+            Arrays.fill(_dist, old, n, Double.POSITIVE_INFINITY);
+            _pred = Arrays.copyOf(_pred, n);
+            _potential = Arrays.copyOf(_potential, n);
+            Arrays.fill(_potential, old, n, Double.NaN);
+            _settled = Arrays.copyOf(_settled, n);
+            _seen = Arrays.copyOf(_seen, n);
+            _touched = Arrays.copyOf(_touched, n);
+        }
+        if (_backward != null) {
+            _backward.ensureCapacity(maxVertex);
+        }
+    }
+
+    /** Forget the previous search (including that of my backward
+     *  workspace, if any). */
+    void reset() {
+        for (int i = 0; i < _touchedCount; i += 1) {
+            int v = _touched[i];
+            _dist[v] = Double.POSITIVE_INFINITY;
+            _pred[v] = 0;
+            _potential[v] = Double.NaN;
+            _settled[v] = false;
+            _seen[v] = false;
+        }
+        _touchedCount = 0;
+        queue.clear();
+        if (_radixQueue != null) {
+            _radixQueue.clear();
+        }
+        if (_backward != null) {
+            _backward.reset();
+        }
+    }
+
+    /** Returns the tentative distance of V, or positive infinity if it has
+     *  not been reached. */
+    double dist(int v) {
+        return v < _dist.length ? _dist[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /** Returns the predecessor of V, or 0 if it has none. */
+    int pred(int v) {
+        return v < _pred.length ? _pred[v] : 0;
+    }
+
+    /** Set the tentative distance of V to D and its predecessor to P. */
+    void reach(int v, double d, int p) {
+        touch(v);
+        _dist[v] = d;
+        _pred[v] = p;
+    }
+
+    /** Set the tentative distance of V to D. */
+    void setDist(int v, double d) {
+        touch(v);
+        _dist[v] = d;
+    }
+
+    /** Set the predecessor of V to P. */
+    void setPred(int v, int p) {
+        touch(v);
+        _pred[v] = p;
+    }
+
+    /** Returns the cached potential of V, or NaN if none has been
+     *  recorded since the last reset. */
+    double potential(int v) {
+        return _potential[v];
+    }
+
+    /** Record P as the potential of V. */
+    void setPotential(int v, double p) {
+        touch(v);
+        _potential[v] = p;
+    }
+
+    /** Returns true iff V has been settled (and not since reopened). */
+    boolean settled(int v) {
+        return v < _settled.length && _settled[v];
+    }
+
+    /** Mark V as settled iff ON. */
+    void setSettled(int v, boolean on) {
+        touch(v);
+        _settled[v] = on;
+    }
+
+    /** Returns the number of vertices touched since the last reset. */
+    int touchedCount() {
+        return _touchedCount;
+    }
+
+    /** Returns the Ith vertex touched since the last reset. */
+    int touched(int i) {
+        return _touched[i];
+    }
+
+    /** Returns my radix heap, for searches with integral keys, creating it
+     *  on first use. */
+    RadixHeap radixQueue() {
+        if (_radixQueue == null) {
+            _radixQueue = new RadixHeap(maxVertex());
+        }
+        return _radixQueue;
+    }
+
+    /** Returns the workspace for the backward half of a bidirectional
+     *  search, creating it on first use.  It is reset along with me. */
+    SearchWorkspace backward() {
+        if (_backward == null) {
+            _backward = new SearchWorkspace(maxVertex());
+        }
+        return _backward;
+    }
+
+    /** Returns a snapshot of G with its predecessors computed, for the
+     *  backward half of a bidirectional search.  The snapshot from the
+     *  previous call is reused if it was of G and G has not changed
+     *  since, so that a series of searches sharing me builds it once. */
+    Adjacency reverse(Graph G) {
+        if (_reverse == null || _reverseGraph != G
+            || _reverseModCount != G.modCount()) {
+            _reverse = new Adjacency(G);
+            _reverse.ensurePredecessors();
+            _reverseGraph = G;
+            _reverseModCount = G.modCount();
+        }
+        return _reverse;
+    }
+
+    /** Add V to the touched vertices, if it is not already there. */
+    private void touch(int v) {
+        if (!_seen[v]) {
+            _seen[v] = true;
+            _touched[_touchedCount] = v;
+            _touchedCount += 1;
+        }
+    }
+
+    /** The queue of the current search. */
+    final IndexedHeap queue;
+
+    /** Tentative distances. */
+    private double[] _dist;
+    /** Predecessors. */
+    private int[] _pred;
+    /** Cached potentials, or NaN. */
+    private double[] _potential;
+    /** True for settled vertices. */
+    private boolean[] _settled;
+    /** True for the vertices in _touched. */
+    private boolean[] _seen;
+    /** Vertices touched since the last reset, in order. */
+    private int[] _touched;
+    /** Number of vertices in _touched. */
+    private int _touchedCount;
+    /** Radix heap for integral searches, or null if not yet needed. */
+    private RadixHeap _radixQueue;
+    /** Workspace for backward searches, or null if not yet needed. */
+    private SearchWorkspace _backward;
+    /** Snapshot returned by reverse, or null if not yet needed. */
+    private Adjacency _reverse;
+    /** The graph of _reverse. */
+    private Graph _reverseGraph;
+    /** Value of _reverseGraph.modCount() when _reverse was taken. */
+    private int _reverseModCount;
+}
@@ -2,17 +2,18 @@ package graph;
 
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
-import java.util.TreeSet;
-import java.util.ArrayDeque;
-import java.util.Collection;
 
 /** The shortest paths through an edge-weighted graph.
  *  By overrriding methods getWeight, setWeight, getPredecessor, and
  *  setPredecessor, the client can determine how to represent the weighting
  *  and the search results.  By overriding estimatedDistance, clients
- *  can search for paths to specific destinations using A* search.
+ *  can search for paths to specific destinations using A* search.  By
+ *  overriding bidirectional, they can search for such paths from both
+ *  ends at once.  After each setPaths, settledCount, relaxedCount,
+ *  heapOperations, peakQueueSize, and reopenedCount describe the work
+ *  that search did, for comparing heuristics and catching regressions.
  *  @author Roland Li
  */
 public abstract class ShortestPaths {
@@ -26,26 +27,62 @@ public abstract class ShortestPaths {
         _G = G;
         _source = source;
         _dest = dest;
-        paths = new ArrayList<ArrayList<Integer>>(_G.verticesSet().size());
-        int i = 0;
-        while (i < _G.verticesSet().size()) {
-            paths.add(i, new ArrayList<>());
-            i++;
-        }
     }
 
     /** Initialize the shortest paths.  Must be called before using
-     *  getWeight, getPredecessor, and pathTo. */
+     *  getWeight, getPredecessor, and pathTo.  Vertices not reached have
+     *  weight positive infinity and no predecessor. */
     public void setPaths() {
-        for (int a : _G.verticesSet()) {
-            setWeight(a, Integer.MAX_VALUE);
+        SearchWorkspace ws = workspace();
+        if (ws == null) {
+            ws = new SearchWorkspace(_G.maxVertex());
+            for (int a : _G.verticesSet()) {
+                setWeight(a, Double.POSITIVE_INFINITY);
+                setPredecessor(a, 0);
+            }
+        } else {
+            ws.ensureCapacity(_G.maxVertex());
+            ws.reset();
         }
+        _settled = _relaxed = _heapOperations = _reopened = 0;
+        _peakQueue = 0;
         setWeight(_source, 0);
-        for (int a : _G.verticesSet()) {
-            setPredecessor(a, 0);
+        if (bidirectional() && _dest != 0) {
+            searchBoth(ws);
+        } else {
+            search(ws);
         }
-        Breadth dij = new Breadth(_G);
-        dij.traverse(_source);
+    }
+
+    /** Returns the number of vertices removed from the queue (settled) by
+     *  the last setPaths, counting a vertex again each time it is
+     *  reopened. */
+    public long settledCount() {
+        return _settled;
+    }
+
+    /** Returns the number of edges examined by the last setPaths. */
+    public long relaxedCount() {
+        return _relaxed;
+    }
+
+    /** Returns the number of insertions, key changes, and removals on the
+     *  queues of the last setPaths. */
+    public long heapOperations() {
+        return _heapOperations;
+    }
+
+    /** Returns the largest number of vertices queued at once during the
+     *  last setPaths (in both queues, for a bidirectional search). */
+    public int peakQueueSize() {
+        return _peakQueue;
+    }
+
+    /** Returns the number of times the last setPaths found a shorter path
+     *  to a vertex it had already settled, and so returned the vertex to
+     *  the queue.  This happens only with an inconsistent heuristic. */
+    public long reopenedCount() {
+        return _reopened;
     }
 
     /** Returns the starting vertex. */
@@ -79,21 +116,67 @@ public abstract class ShortestPaths {
         return 0.0;
     }
 
+    /** Returns an estimated heuristic weight of the shortest path from the
+     *  source vertex to vertex V, used by bidirectional searches.  This is
+     *  assumed to be less than the actual weight, and is 0 by default. */
+    protected double estimatedDistanceFrom(int v) {
+        return 0.0;
+    }
+
+    /** Returns true iff setPaths is to search for a shortest path to the
+     *  destination from both ends at once: forward from the source over
+     *  successors, and backward from the destination over predecessors,
+     *  stopping once no path through the unsettled vertices of both
+     *  searches can be shorter than the best path found.  If the
+     *  estimatedDistance and estimatedDistanceFrom heuristics are
+     *  overridden, the two searches are A* searches guided by the average
+     *  of the two (which keeps them consistent with each other), and both
+     *  heuristics must be consistent.  Only the weights and predecessors
+     *  of the vertices on the resulting path are then meaningful.  The
+     *  backward search reads a snapshot of the edges of the graph, which
+     *  is taken once for any number of searches that share a workspace
+     *  while the graph does not change.  Has no effect if there is no
+     *  destination, and is false by default. */
+    protected boolean bidirectional() {
+        return false;
+    }
+
+    /** Returns true iff all edge weights are non-negative integers, as are
+     *  all values of estimatedDistance, in which case setPaths may use a
+     *  radix heap, which is faster than the default comparison-based
+     *  queue.  Heuristic estimates used with this option should be
+     *  consistent (no greater than the weight of any edge plus the
+     *  estimate at its end).  Shortest paths found are the same either
+     *  way, but among paths of equal weight, the choice may differ.  False
+     *  by default. */
+    protected boolean integralWeights() {
+        return false;
+    }
+
     /** Returns the current weight of edge (U, V) in the graph.  If (U, V) is
      *  not in the graph, returns positive infinity. */
     protected abstract double getWeight(int u, int v);
 
+    /** Returns the workspace in which setPaths keeps its queue and cached
+     *  estimates, or null if each call is to use fresh storage.  A
+     *  workspace is reset at the start of each setPaths, in time
+     *  proportional to the previous search, and weights and predecessors
+     *  kept in it need no other initialization.  Null by default. */
+    SearchWorkspace workspace() {
+        return null;
+    }
+
     /** Returns a list of vertices starting at _source and ending
      *  at V that represents a shortest path to V.  Invalid if there is a
      *  destination vertex other than V. */
     public List<Integer> pathTo(int v) {
-        int a = _G.verticesSet().indexOf(v);
         ArrayList<Integer> path = new ArrayList<>();
         while (getPredecessor(v) != 0) {
-            path.add(0, v);
+            path.add(v);
             v = getPredecessor(v);
         }
-        path.add(0, _source);
+        path.add(_source);
+        Collections.reverse(path);
         return path;
     }
 
@@ -111,61 +194,169 @@ public abstract class ShortestPaths {
     /** The target vertex. */
     private final int _dest;
 
-    /** List of paths. */
-    private ArrayList<ArrayList<Integer>> paths;
-
-    /** Helper class for traversing the graph. */
-    private class Breadth extends Traversal {
-        /** Tree set representation. */
-        private TreeSet<Integer> shiftry;
-        /** Cycler. */
-        private ArrayList<Integer> cycle;
-        /** Initializes a helper traversal based off G. */
-        protected Breadth(Graph G) {
-            super(G, new ArrayDeque<Integer>());
-            cycle = new ArrayList<>();
-            shiftry = new TreeSet<Integer>(new Comparator<Integer>() {
-                @Override
-                public int compare(Integer o1, Integer o2) {
-                    double a = getWeight(o1)
-                            + estimatedDistance(o1);
-                    double b = getWeight(o2)
-                            + estimatedDistance(o2);
-                    if (a > b) {
-                        return 1;
-                    } else if (a < b) {
-                        return -1;
-                    } else {
-                        return o1.compareTo(o2);
-                    }
-                }
-            });
-        }
+    /** Statistics of the last setPaths. */
+    private long _settled, _relaxed, _heapOperations, _reopened;
+    /** Largest number of queued vertices during the last setPaths. */
+    private int _peakQueue;
 
-        @Override
-        public void traverse(Collection<Integer> v0) {
-            shiftry.clear();
-            shiftry.addAll(v0);
-            while (!shiftry.isEmpty()) {
-                int now = shiftry.pollFirst();
-                if (now == _dest) {
-                    break;
+    /** Run Dijkstra's algorithm (or A* search, if estimatedDistance is
+     *  overridden) from _source, stopping when _dest, if any, leaves the
+     *  queue.  Each queued vertex is keyed by its weight plus its estimated
+     *  distance, computed once per vertex, and a vertex whose weight
+     *  improves has its key lowered.  Vertices leaving the queue are
+     *  marked settled; a settled vertex whose weight later improves (which
+     *  requires an inconsistent heuristic) is reopened, that is, unmarked
+     *  and queued again.  The queue, estimates, and marks are kept in WS,
+     *  which has been reset. */
+    private void search(SearchWorkspace ws) {
+        VertexQueue queue = integralWeights() ? ws.radixQueue() : ws.queue;
+        enqueue(queue, _source, getWeight(_source) + potential(ws, _source),
+                0);
+        while (!queue.isEmpty()) {
+            int now = dequeue(ws, queue);
+            if (now == _dest) {
+                break;
+            }
+            double w = getWeight(now);
+            for (int v : _G.successors(now)) {
+                _relaxed += 1;
+                double d = w + getWeight(now, v);
+                if (getWeight(v) > d) {
+                    setWeight(v, d);
+                    setPredecessor(v, now);
+                    reopen(ws, v);
+                    enqueue(queue, v, d + potential(ws, v), 0);
                 }
-                processSuccessors(now);
             }
         }
+    }
 
-        @Override
-        public void processSuccessors(int now) {
-            for (int v : _G.successors(now)) {
-                if (getWeight(v) > getWeight(now) + getWeight(now, v)) {
-                    shiftry.remove(v);
-                    setWeight(v, getWeight(now) + getWeight(now, v));
-                    setPredecessor(v, now);
-                    shiftry.add(v);
+    /** Run bidirectional Dijkstra's algorithm (or bidirectional A* search)
+     *  between _source and _dest, as described for bidirectional(), and
+     *  record the shortest path found through the weights and
+     *  predecessors of its vertices.  The forward search keys each vertex
+     *  by its weight plus potential(V), and the backward search by its
+     *  distance to _dest minus potential(V), so that the search may stop
+     *  once the smallest keys of the two queues sum to at least the weight
+     *  of the best path found.  Each step advances the search whose
+     *  smallest key is smaller.  The forward search uses WS, which has
+     *  been reset, and the backward search its backward workspace, whose
+     *  distances are those to _dest and whose predecessors are the next
+     *  vertices on the way there.  The backward search reads predecessors
+     *  from a snapshot kept by WS (see SearchWorkspace.reverse), since
+     *  predecessors may take time proportional to the size of _G. */
+    private void searchBoth(SearchWorkspace ws) {
+        SearchWorkspace back = ws.backward();
+        IndexedHeap forward = ws.queue, backward = back.queue;
+        Adjacency adj = ws.reverse(_G);
+        int[] inStart = adj.inStart, in = adj.in;
+
+        back.setDist(_dest, 0.0);
+        enqueue(forward, _source, getWeight(_source)
+                + potential(ws, _source), 0);
+        enqueue(backward, _dest, -potential(back, _dest), forward.size());
+        double best = Double.POSITIVE_INFINITY;
+        int meet = 0;
+        if (_source == _dest) {
+            best = 0.0;
+            meet = _source;
+        }
+        while (!forward.isEmpty() && !backward.isEmpty()) {
+            double kf = forward.key(forward.peek()),
+                kb = backward.key(backward.peek());
+            if (kf + kb >= best) {
+                break;
+            }
+            if (kf <= kb) {
+                int now = dequeue(ws, forward);
+                double w = getWeight(now);
+                for (int v : _G.successors(now)) {
+                    _relaxed += 1;
+                    double d = w + getWeight(now, v);
+                    if (getWeight(v) > d) {
+                        setWeight(v, d);
+                        setPredecessor(v, now);
+                        reopen(ws, v);
+                        enqueue(forward, v, d + potential(ws, v),
+                                backward.size());
+                        if (d + back.dist(v) < best) {
+                            best = d + back.dist(v);
+                            meet = v;
+                        }
+                    }
+                }
+            } else {
+                int now = dequeue(back, backward);
+                double w = back.dist(now);
+                for (int k = inStart[now]; k < inStart[now + 1]; k += 1) {
+                    int u = in[k];
+                    _relaxed += 1;
+                    double d = w + getWeight(u, now);
+                    if (back.dist(u) > d) {
+                        back.reach(u, d, now);
+                        reopen(back, u);
+                        enqueue(backward, u, d - potential(back, u),
+                                forward.size());
+                        if ((u == _source || getPredecessor(u) != 0)
+                            && getWeight(u) + d < best) {
+                            best = getWeight(u) + d;
+                            meet = u;
+                        }
+                    }
                 }
             }
         }
+        for (int u = meet; u != 0 && u != _dest; u = back.pred(u)) {
+            int v = back.pred(u);
+            setWeight(v, getWeight(u) + getWeight(u, v));
+            setPredecessor(v, u);
+        }
     }
-}
 
+    /** Put V in QUEUE with key KEY, recording the operation and the
+     *  queue size, counting OTHER vertices queued elsewhere. */
+    private void enqueue(VertexQueue queue, int v, double key, int other) {
+        queue.put(v, key);
+        _heapOperations += 1;
+        _peakQueue = Math.max(_peakQueue, queue.size() + other);
+    }
+
+    /** Remove and return the first vertex of QUEUE, marking it settled in
+     *  WS and recording the operation. */
+    private int dequeue(SearchWorkspace ws, VertexQueue queue) {
+        int v = queue.poll();
+        ws.setSettled(v, true);
+        _heapOperations += 1;
+        _settled += 1;
+        return v;
+    }
+
+    /** Unmark V as settled in WS if it is marked, counting a reopening. */
+    private void reopen(SearchWorkspace ws, int v) {
+        if (ws.settled(v)) {
+            ws.setSettled(v, false);
+            _reopened += 1;
+        }
+    }
+
+    /** Returns the potential of vertex V, caching it in WS.  For
+     *  bidirectional searches, this is the average of estimatedDistance(V)
+     *  and -estimatedDistanceFrom(V); otherwise it is estimatedDistance(V).
+     */
+    private double potential(SearchWorkspace ws, int v) {
+        double p = ws.potential(v);
+        if (Double.isNaN(p)) {
+            p = computePotential(v);
+            ws.setPotential(v, p);
+        }
+        return p;
+    }
+
+    /** Returns the potential of vertex V (see potential), uncached. */
+    private double computePotential(int v) {
+        if (bidirectional() && _dest != 0) {
+            return (estimatedDistance(v) - estimatedDistanceFrom(v)) / 2;
+        }
+        return estimatedDistance(v);
+    }
+}
@@ -5,17 +5,18 @@ import static java.lang.Double.POSITIVE_INFINITY;
 
 /** A partial implementation of ShortestPaths that contains the weights of
  *  the vertices and the predecessor edges.   The client needs to
- *  supply only the two-argument getWeight method.
+ *  supply only the two-argument getWeight method.  Weights and
+ *  predecessors are kept, indexed by vertex, in a SearchWorkspace, along
+ *  with the rest of the storage for the search.  A client making many
+ *  queries (in one thread) may supply the same workspace to each, so that
+ *  each setPaths takes time proportional to the parts of the graph it and
+ *  the previous search explore, rather than to the size of the graph.
+ *  Each setPaths then invalidates the results of any earlier search
+ *  sharing its workspace.
  *  @author Roland Li
  */
 public abstract class SimpleShortestPaths extends ShortestPaths {
 
-    /** Collection of weights. */
-    private double[] weights;
-
-    /** Collection of predecessors. */
-    private int[] predecessors;
-
     /** The shortest paths in G from SOURCE. */
     public SimpleShortestPaths(Graph G, int source) {
         this(G, source, 0);
@@ -23,10 +24,15 @@ public abstract class SimpleShortestPaths extends ShortestPaths {
 
     /** A shortest path in G from SOURCE to DEST. */
     public SimpleShortestPaths(Graph G, int source, int dest) {
-        super(G, source, dest);
-        weights = new double[_G.verticesSet().size()];
-        predecessors = new int[_G.verticesSet().size()];
+        this(G, source, dest, new SearchWorkspace(G.maxVertex()));
+    }
 
+    /** A shortest path in G from SOURCE to DEST (0 for all shortest paths
+     *  from SOURCE), kept in WORKSPACE. */
+    public SimpleShortestPaths(Graph G, int source, int dest,
+                               SearchWorkspace workspace) {
+        super(G, source, dest);
+        _workspace = workspace;
     }
 
     /** Returns the current weight of edge (U, V) in the graph.  If (U, V) is
@@ -36,34 +42,36 @@ public abstract class SimpleShortestPaths extends ShortestPaths {
 
     @Override
     public double getWeight(int v) {
-        if (!_G.verticesSet().contains(v)) {
+        if (!_G.contains(v)) {
             return POSITIVE_INFINITY;
         }
-        int a = _G.verticesSet().indexOf(v);
-        return weights[a];
+        return _workspace.dist(v);
     }
 
     @Override
     protected void setWeight(int v, double w) {
-        int a = _G.verticesSet().indexOf(v);
-        weights[a] = w;
+        _workspace.setDist(v, w);
     }
 
     @Override
     public int getPredecessor(int v) {
-        if (_G.verticesSet().contains(v)) {
-            int a = _G.verticesSet().indexOf(v);
-            return predecessors[a];
+        if (_G.contains(v)) {
+            return _workspace.pred(v);
         }
         return 0;
     }
 
     @Override
     protected void setPredecessor(int v, int u) {
-        int a = _G.verticesSet().indexOf(v);
-        predecessors[a] = u;
+        _workspace.setPred(v, u);
     }
 
+    @Override
+    SearchWorkspace workspace() {
+        return _workspace;
+    }
 
+    /** Holds my weights and predecessors. */
+    private final SearchWorkspace _workspace;
 
 }
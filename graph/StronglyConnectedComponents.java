@@ -0,0 +1,174 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** The strongly connected components of a graph: maximal sets of vertices
+ *  in which each vertex can reach every other.  Components are found by
+ *  Tarjan's algorithm, run with an explicit stack rather than recursion,
+ *  so that it takes time O(V + E) and handles arbitrarily long paths.
+ *
+ *  Components are numbered 1 .. componentCount() in topological order:
+ *  every edge between two different components leads from a lower-numbered
+ *  to a higher-numbered one.  The result describes the graph at the time
+ *  this object was created.
+ *  @author Roland Li
+ */
+public class StronglyConnectedComponents {
+
+    /** The strongly connected components of G. */
+    public StronglyConnectedComponents(Graph G) {
+        _adj = new Adjacency(G);
+        int n = _adj.maxVertex();
+        _component = new int[n + 1];
+        int[] start = _adj.outStart, out = _adj.out;
+
+        int[] index = new int[n + 1];
+        int[] low = new int[n + 1];
+        int[] cursor = new int[n + 1];
+        boolean[] onStack = new boolean[n + 1];
+        int[] stack = new int[n];
+        int[] calls = new int[n];
+        int sp, cp, counter, found;
+        sp = cp = counter = found = 0;
+
+        for (int s = 1; s <= n; s += 1) {
+            if (index[s] != 0 || !G.contains(s)) {
+                continue;
+            }
+            counter += 1;
+            index[s] = low[s] = counter;
+            cursor[s] = start[s];
+            stack[sp++] = s;
+            onStack[s] = true;
+            calls[cp++] = s;
+            while (cp > 0) {
+                int v = calls[cp - 1];
+                if (cursor[v] < start[v + 1]) {
+                    int w = out[cursor[v]];
+                    cursor[v] += 1;
+                    if (index[w] == 0) {
+                        counter += 1;
+                        index[w] = low[w] = counter;
+                        cursor[w] = start[w];
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        calls[cp++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                } else {
+                    cp -= 1;
+                    if (low[v] == index[v]) {
+                        found += 1;
+                        int w;
+                        do {
+                            sp -= 1;
+                            w = stack[sp];
+                            onStack[w] = false;
+                            _component[w] = found;
+                        } while (w != v);
+                    }
+                    if (cp > 0) {
+                        int u = calls[cp - 1];
+                        low[u] = Math.min(low[u], low[v]);
+                    }
+                }
+            }
+        }
+
+        _count = found;
+        for (int v = 1; v <= n; v += 1) {
+            if (_component[v] != 0) {
+                _component[v] = found + 1 - _component[v];
+            }
+        }
+    }
+
+    /** Returns the number of strongly connected components. */
+    public int componentCount() {
+        return _count;
+    }
+
+    /** Returns the number of the component containing V, or 0 if V was
+     *  not a vertex. */
+    public int component(int v) {
+        return v >= 0 && v < _component.length ? _component[v] : 0;
+    }
+
+    /** Returns the component numbers of all vertices, indexed by vertex
+     *  (see component). */
+    public int[] components() {
+        return _component.clone();
+    }
+
+    /** Returns the vertices of each component, in increasing order:
+     *  element C of the result (for C = 1 .. componentCount()) holds the
+     *  members of component C. */
+    public int[][] members() {
+        int[] size = new int[_count + 1];
+        for (int c : _component) {
+            size[c] += 1;
+        }
+        int[][] result = new int[_count + 1][];
+        result[0] = new int[0];
+        for (int c = 1; c <= _count; c += 1) {
+            result[c] = new int[size[c]];
+        }
+        Arrays.fill(size, 0);
+        for (int v = 1; v < _component.length; v += 1) {
+            int c = _component[v];
+            if (c != 0) {
+                result[c][size[c]] = v;
+                size[c] += 1;
+            }
+        }
+        return result;
+    }
+
+    /** Returns true iff the graph had no cycles other than self-edges
+     *  (that is, every component is a single vertex). */
+    public boolean isAcyclic() {
+        int vertices = 0;
+        for (int c : _component) {
+            if (c != 0) {
+                vertices += 1;
+            }
+        }
+        return vertices == _count;
+    }
+
+    /** Returns the condensation of the graph: a new DirectedGraph whose
+     *  vertex C represents component C, with an edge (C, D) iff some edge
+     *  of the graph leads from a vertex of C to a vertex of D != C.  The
+     *  result is acyclic. */
+    public DirectedGraph condensation() {
+        DirectedGraph dag = new DirectedGraph();
+        for (int c = 1; c <= _count; c += 1) {
+            dag.add();
+        }
+        int[][] members = members();
+        int[] start = _adj.outStart, out = _adj.out;
+        int[] seen = new int[_count + 1];
+        for (int c = 1; c <= _count; c += 1) {
+            for (int v : members[c]) {
+                for (int e = start[v]; e < start[v + 1]; e += 1) {
+                    int d = _component[out[e]];
+                    if (d != c && seen[d] != c) {
+                        seen[d] = c;
+                        dag.add(c, d);
+                    }
+                }
+            }
+        }
+        return dag;
+    }
+
+    /** Snapshot of the graph. */
+    private final Adjacency _adj;
+    /** Component of each vertex, or 0 for non-vertices. */
+    private final int[] _component;
+    /** Number of components. */
+    private final int _count;
+}
@@ -0,0 +1,167 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A topological ordering of the vertices of a directed graph, computed by
+ *  Kahn's algorithm: vertices are removed in rounds, each round taking all
+ *  remaining vertices none of whose predecessors remain.  The rounds form
+ *  "levels": each level is a set of vertices with no edges among them,
+ *  all of whose predecessors lie in earlier levels, so that the vertices of
+ *  a level may be processed in any order (or at once) once earlier levels
+ *  are complete.
+ *
+ *  If the graph has a cycle, the vertices on or after a cycle are never
+ *  removed, and cycle() provides one such cycle as evidence.  Everything
+ *  takes time O(V + E), and describes the graph at the time this object
+ *  was created.
+ *  @author Roland Li
+ */
+public class TopologicalSort {
+
+    /** A topological sort of G, which must be directed. */
+    public TopologicalSort(Graph G) {
+        if (!G.isDirected()) {
+            throw new IllegalArgumentException("graph is not directed");
+        }
+        _adj = new Adjacency(G);
+        int n = _adj.maxVertex();
+        int[] start = _adj.outStart, out = _adj.out;
+
+        int[] inDegree = new int[n + 1];
+        for (int w : out) {
+            inDegree[w] += 1;
+        }
+        _level = new int[n + 1];
+        Arrays.fill(_level, -1);
+        _order = new int[n];
+        int size = 0;
+        for (int v = 1; v <= n; v += 1) {
+            if (G.contains(v)) {
+                _vertices += 1;
+                if (inDegree[v] == 0) {
+                    _level[v] = 0;
+                    _order[size] = v;
+                    size += 1;
+                }
+            }
+        }
+        int[] levelStart = new int[n + 2];
+        int levels = 0;
+        int lo = 0;
+        while (lo < size) {
+            levelStart[levels] = lo;
+            levels += 1;
+            int hi = size;
+            for (int i = lo; i < hi; i += 1) {
+                int u = _order[i];
+                for (int e = start[u]; e < start[u + 1]; e += 1) {
+                    int w = out[e];
+                    inDegree[w] -= 1;
+                    if (inDegree[w] == 0) {
+                        _level[w] = levels;
+                        _order[size] = w;
+                        size += 1;
+                    }
+                }
+            }
+            lo = hi;
+        }
+        levelStart[levels] = size;
+        _sorted = size;
+        _levelStart = Arrays.copyOf(levelStart, levels + 1);
+    }
+
+    /** Returns true iff the graph has no cycles. */
+    public boolean isAcyclic() {
+        return _sorted == _vertices;
+    }
+
+    /** Returns the sorted vertices, each preceding all its successors.  If
+     *  the graph has a cycle, only vertices not reachable from a cycle are
+     *  included. */
+    public int[] order() {
+        return Arrays.copyOf(_order, _sorted);
+    }
+
+    /** Returns the number of levels. */
+    public int levelCount() {
+        return _levelStart.length - 1;
+    }
+
+    /** Returns the vertices of level K, in increasing order. */
+    public int[] level(int k) {
+        int[] result = Arrays.copyOfRange(_order, _levelStart[k],
+                                          _levelStart[k + 1]);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /** Returns all levels: element K of the result is level(K). */
+    public int[][] levels() {
+        int[][] result = new int[levelCount()][];
+        for (int k = 0; k < result.length; k += 1) {
+            result[k] = level(k);
+        }
+        return result;
+    }
+
+    /** Returns the level of vertex V, or -1 if V was not sorted (because
+     *  it is reachable from a cycle or is not a vertex). */
+    public int levelOf(int v) {
+        return v >= 0 && v < _level.length ? _level[v] : -1;
+    }
+
+    /** Returns the vertices of a cycle, (v1, v2, ..., vk), such that there
+     *  are edges (v1, v2), ..., (vk-1, vk), and (vk, v1), or null if the
+     *  graph is acyclic. */
+    public int[] cycle() {
+        if (isAcyclic()) {
+            return null;
+        }
+        _adj.ensurePredecessors();
+        int[] start = _adj.inStart, in = _adj.in;
+        int v = 0;
+        for (int u = 1; v == 0; u += 1) {
+            if (_level[u] < 0 && start[u + 1] > start[u]) {
+                v = u;
+            }
+        }
+        int[] step = new int[_level.length];
+        int[] path = new int[_level.length];
+        int k = 0;
+        while (step[v] == 0) {
+            k += 1;
+            step[v] = k;
+            path[k - 1] = v;
+            int next = 0;
+            for (int e = start[v]; next == 0; e += 1) {
+                if (_level[in[e]] < 0) {
+                    next = in[e];
+                }
+            }
+            v = next;
+        }
+        int[] result = Arrays.copyOfRange(path, step[v] - 1, k);
+        for (int i = 0, j = result.length - 1; i < j; i += 1, j -= 1) {
+            int t = result[i];
+            result[i] = result[j];
+            result[j] = t;
+        }
+        return result;
+    }
+
+    /** Snapshot of the graph. */
+    private final Adjacency _adj;
+    /** Level of each vertex, or -1. */
+    private final int[] _level;
+    /** Sorted vertices, grouped by level. */
+    private final int[] _order;
+    /** Start of each level in _order, followed by the number sorted. */
+    private final int[] _levelStart;
+    /** Number of vertices sorted. */
+    private final int _sorted;
+    /** Number of vertices in the graph. */
+    private int _vertices;
+}
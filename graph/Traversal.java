@@ -4,8 +4,8 @@ package graph;
 
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Queue;
 import java.util.Arrays;
 
@@ -17,7 +17,7 @@ import java.util.Arrays;
  *
  *  Generally, the client will extend Traversal.  By overriding the visit
  *  method, the client can determine what happens when a node is visited.
- *  By supplying an appropriate type of Queue object to the constructor,
+ *  By supplying an appropriate Fringe (or Queue) object to the constructor,
  *  the client can control the behavior of the fringe. By overriding the
  *  shouldPostVisit and postVisit methods, the client can arrange for
  *  post-visits of a node (as in depth-first search).  By overriding
@@ -25,106 +25,219 @@ import java.util.Arrays;
  *  the addition of neighbor vertices to the fringe when a vertex is visited.
  *
  *  Traversals may be interrupted or restarted, remembering the previously
- *  marked vertices.
+ *  marked vertices.  They may also be run in slices: start initializes
+ *  the fringe, and each call of resume then does a bounded amount of work,
+ *  keeping the fringe and marks for the next call, so that a large
+ *  traversal can share a thread with latency-sensitive work.
  *  @author Roland Li
  */
 public abstract class Traversal {
 
-    /** Cycle detector. */
-    private ArrayList<Integer> cycle;
-
     /** A Traversal of G, using FRINGE as the fringe. */
     protected Traversal(Graph G, Queue<Integer> fringe) {
+        this(G, Fringe.of(fringe), false);
+    }
+
+    /** A Traversal of G, using FRINGE as the fringe. */
+    protected Traversal(Graph G, Fringe fringe) {
+        this(G, fringe, false);
+    }
+
+    /** A Traversal of G, using FRINGE as the fringe, and marking with
+     *  stamps iff STAMPED (see below). */
+    protected Traversal(Graph G, Queue<Integer> fringe, boolean stamped) {
+        this(G, Fringe.of(fringe), stamped);
+    }
+
+    /** A Traversal of G, using FRINGE as the fringe.  If STAMPED, marks are
+     *  kept as epoch stamps, so that clear() takes constant time rather
+     *  than time proportional to the size of the graph.  This suits clients
+     *  that run many small traversals over one large graph. */
+    protected Traversal(Graph G, Fringe fringe, boolean stamped) {
         _G = G;
         _fringe = fringe;
-        markedstuff = new boolean[_G.vertexSize()];
-        cycle = new ArrayList<Integer>();
+        if (stamped) {
+            _stamps = new VisitStamps(_G.maxVertex() + 1);
+            markedstuff = null;
+        } else {
+            _stamps = null;
+            markedstuff = new BitSet(_G.maxVertex() + 1);
+        }
     }
 
-    /** Returns the MARKEDSTUFF collection. */
+    /** Returns an array, indexed by vertex number, whose elements are true
+     *  for exactly the marked vertices. */
     public boolean[] getMarked() {
-        return markedstuff;
+        boolean[] result = new boolean[_G.maxVertex() + 1];
+        if (_stamps != null) {
+            for (int v = 0; v < result.length; v += 1) {
+                result[v] = _stamps.marked(v);
+            }
+        } else {
+            for (int v = markedstuff.nextSetBit(0);
+                 v >= 0 && v < result.length;
+                 v = markedstuff.nextSetBit(v + 1)) {
+                result[v] = true;
+            }
+        }
+        return result;
     }
 
     /** Unmark all vertices in the graph. */
     public void clear() {
-        int i = 0;
-        while (i < markedstuff.length) {
-            markedstuff[i] = false;
-            i++;
+        if (_stamps != null) {
+            _stamps.clear();
+        } else {
+            markedstuff.clear();
         }
     }
 
     /** Initialize the fringe to V0 and perform a traversal. */
     public void traverse(Collection<Integer> V0) {
+        start(V0);
+        resume(Integer.MAX_VALUE);
+    }
+
+    /** Initialize the fringe to { V0 } and perform a traversal. */
+    public void traverse(int v0) {
+        traverse(Arrays.<Integer>asList(v0));
+    }
+
+    /** Initialize the fringe to V0 in preparation for a traversal to be
+     *  performed by subsequent calls to resume. */
+    public void start(Collection<Integer> V0) {
         _fringe.clear();
         _fringe.addAll(V0);
-        while (!_fringe.isEmpty()) {
+        startProgress();
+    }
+
+    /** Initialize the fringe to { V0 } in preparation for a traversal to be
+     *  performed by subsequent calls to resume. */
+    public void start(int v0) {
+        start(Arrays.<Integer>asList(v0));
+    }
+
+    /** Continue the traversal begun by start, performing at most about
+     *  BUDGET units of work, where visiting a vertex and examining an edge
+     *  each count as one unit.  (The successors of a vertex are processed
+     *  together, so a call may exceed BUDGET by the number of successors of
+     *  one vertex.)  Returns true iff the traversal is finished, either
+     *  because it has run out of vertices or because a visit or post-visit
+     *  terminated it. */
+    public boolean resume(int budget) {
+        long limit = workDone() + budget;
+        while (!_finished && workDone() < limit) {
+            if (_fringe.isEmpty()) {
+                _finished = true;
+                break;
+            }
             int now = _fringe.remove();
-            int a = _G.verticesSet().indexOf(now);
-            if (!markedstuff[a]) {
-                if (shouldPostVisit(now)) {
-                    if (!_G.successors(now).hasNext()) {
-                        mark(now);
-                        cycle.add(now);
-                        if (!postVisit(now)) {
-                            return;
-                        }
-                    } else {
-                        Iteration<Integer> successors = _G.successors(now);
-                        int i = 0;
-                        ArrayList<Integer> adding = new ArrayList<Integer>();
-                        for (int successor : successors) {
-                            int b = _G.verticesSet().indexOf(successor);
-                            if (!markedstuff[b]) {
-                                i++;
-                                adding.add(successor);
-                            }
-                        }
-                        if (i == 0) {
-                            mark(now);
-                            if (!postVisit(now)) {
-                                return;
-                            }
-                        } else {
-                            _fringe.add(now);
-                            if (getClass().equals(DepthFirstTraversal.class)) {
-                                Collections.reverse(adding);
-                            }
-                            _fringe.addAll(adding);
-                        }
-                    }
-                } else {
-                    mark(now);
-                    if (!visit(now)) {
-                        return;
-                    }
-                    processSuccessors(now);
+            if (!marked(now)) {
+                mark(now);
+                _vertexCount += 1;
+                if (!visit(now)) {
+                    _finished = true;
+                    break;
+                }
+                processSuccessors(now);
+                if (shouldPostVisit(now) && !postVisit(now)) {
+                    _finished = true;
                 }
             }
         }
+        return _finished;
     }
 
+    /** Returns true iff the traversal begun by the last start or traverse
+     *  is finished. */
+    public boolean isFinished() {
+        return _finished;
+    }
 
-    /** Initialize the fringe to { V0 } and perform a traversal. */
-    public void traverse(int v0) {
-        traverse(Arrays.<Integer>asList(v0));
+    /** Returns the number of vertices visited since the last start or
+     *  traverse. */
+    public long vertexCount() {
+        return _vertexCount;
+    }
+
+    /** Returns the number of edges examined since the last start or
+     *  traverse (by the standard processSuccessors method or by a
+     *  depth-first traversal). */
+    public long edgeCount() {
+        return _edgeCount;
+    }
+
+    /** Returns the number of vertices waiting in the fringe. */
+    public int fringeSize() {
+        return _fringe.size();
+    }
+
+    /** Reset the measures of progress for a new traversal. */
+    void startProgress() {
+        _finished = false;
+        _vertexCount = _edgeCount = 0;
+    }
+
+    /** Returns the units of work done since the last start or traverse. */
+    long workDone() {
+        return _vertexCount + _edgeCount;
+    }
+
+    /** Record that the current traversal has finished. */
+    void finish() {
+        _finished = true;
+    }
+
+    /** Record a visit to one vertex. */
+    void countVertex() {
+        _vertexCount += 1;
+    }
+
+    /** Record the examination of one edge. */
+    void countEdge() {
+        _edgeCount += 1;
+    }
+
+    /** Record the examination of K edges. */
+    void countEdges(long k) {
+        _edgeCount += k;
+    }
+
+    /** Returns the marked vertices numbered up to N as a bitset: bit V % 64
+     *  of element V / 64 is set iff V is marked.  Takes time proportional
+     *  to N / 64, unless marks are stamps. */
+    long[] markedWords(int n) {
+        int words = (n >> 6) + 1;
+        long[] result;
+        if (_stamps != null) {
+            result = new long[words];
+            for (int v = 0; v <= n; v += 1) {
+                if (_stamps.marked(v)) {
+                    result[v >> 6] |= 1L << v;
+                }
+            }
+        } else {
+            result = Arrays.copyOf(markedstuff.toLongArray(), words);
+            result[words - 1] &= -1L >>> (63 - (n & 63));
+        }
+        return result;
     }
 
     /** Returns true iff V has been marked. */
     protected boolean marked(int v) {
-        int a = _G.verticesSet().indexOf(v);
-        if (markedstuff[a]) {
-            return true;
+        if (_stamps != null) {
+            return _stamps.marked(v);
         }
-        return false;
+        return markedstuff.get(v);
     }
 
     /** Mark vertex V. */
     protected void mark(int v) {
-        int a = _G.verticesSet().indexOf(v);
-        markedstuff[a] = true;
-
+        if (_stamps != null) {
+            _stamps.mark(v);
+        } else {
+            markedstuff.set(v);
+        }
     }
 
     /** Perform a visit on vertex V.  Returns false iff the traversal is to
@@ -135,7 +248,10 @@ public abstract class Traversal {
 
     /** Return true if we should postVisit V after traversing its
      *  successors.  (Post-visiting generally is useful only for depth-first
-     *  traversals, although we define it for all traversals.) */
+     *  traversals, although we define it for all traversals.  In general,
+     *  a post-visit of V follows immediately after its successors are added
+     *  to the fringe; DepthFirstTraversal instead post-visits V after all
+     *  vertices reachable through it have been traversed.) */
     protected boolean shouldPostVisit(int v) {
         return false;
     }
@@ -150,16 +266,15 @@ public abstract class Traversal {
      *  default implementation simply processes each successor using
      *  processSuccessor. */
     protected void processSuccessors(int u) {
-        ArrayList<Integer> help = new ArrayList<>();
+        int n = 0;
         for (int v : _G.successors(u)) {
+            _edgeCount += 1;
             if (processSuccessor(u, v)) {
-                help.add(v);
+                _fringe.add(v);
+                n += 1;
             }
         }
-        if (getClass().equals(DepthFirstTraversal.class)) {
-            Collections.reverse(help);
-        }
-        _fringe.addAll(help);
+        _fringe.orderLast(n);
     }
 
     /** Process successor V to U.  Returns true iff V is then to
@@ -168,12 +283,28 @@ public abstract class Traversal {
         return !marked(v);
     }
 
+    /** Returns the graph being traversed. */
+    Graph graph() {
+        return _G;
+    }
+
     /** The graph being traversed. */
     private final Graph _G;
     /** The fringe. */
-    protected final Queue<Integer> _fringe;
-    /** Collection of marked vertices. */
-    private boolean[] markedstuff;
+    protected final Fringe _fringe;
+    /** The marked vertices, indexed by vertex number.  Grows as needed,
+     *  so that vertices added to the graph after I was created may also
+     *  be marked.  Null if I use _stamps instead. */
+    private final BitSet markedstuff;
+    /** The marked vertices, as epoch stamps, or null if I use markedstuff
+     *  instead. */
+    private final VisitStamps _stamps;
+    /** True iff the current traversal is finished. */
+    private boolean _finished = true;
+    /** Vertices visited in the current traversal. */
+    private long _vertexCount;
+    /** Edges examined in the current traversal. */
+    private long _edgeCount;
     /** Collection of seen vertices. */
     private ArrayList<Integer> visualized;
 }
@@ -5,6 +5,11 @@ package graph;
 /** Represents an undirected graph.  Out edges and in edges are not
  *  distinguished.  Likewise for successors and predecessors.
  *
+ *  An undirected graph also maintains an index of its connected
+ *  components, so that connected(u, v) and componentCount() take nearly
+ *  constant time.  The index is updated as vertices and edges are added;
+ *  removals invalidate it, and it is rebuilt on the next query.
+ *
  *  @author Roland Li
  */
 public class UndirectedGraph extends GraphObj {
@@ -24,5 +29,65 @@ public class UndirectedGraph extends GraphObj {
         return neighbors(v);
     }
 
+    @Override
+    public int add() {
+        int v = super.add();
+        if (_components != null) {
+            _components.makeSet(v);
+        }
+        return v;
+    }
+
+    @Override
+    public int add(int u, int v) {
+        int e = super.add(u, v);
+        if (_components != null) {
+            _components.union(u, v);
+        }
+        return e;
+    }
+
+    @Override
+    public void remove(int v) {
+        super.remove(v);
+        _components = null;
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        super.remove(u, v);
+        _components = null;
+    }
+
+    /** Returns true iff U and V are vertices joined by some path. */
+    public boolean connected(int u, int v) {
+        UnionFind components = components();
+        return components.contains(u) && components.contains(v)
+            && components.find(u) == components.find(v);
+    }
+
+    /** Returns the number of connected components. */
+    public int componentCount() {
+        return components().sets();
+    }
+
+    /** Returns my index of connected components, rebuilding it if
+     *  necessary. */
+    private UnionFind components() {
+        if (_components == null) {
+            UnionFind components = new UnionFind(maxVertex() + 1);
+            for (int v : verticesSet()) {
+                components.makeSet(v);
+            }
+            for (int[] e : edges()) {
+                components.union(e[0], e[1]);
+            }
+            _components = components;
+        }
+        return _components;
+    }
+
+    /** Index of my connected components, or null if it must be rebuilt. */
+    private UnionFind _components = new UnionFind(1);
 
 }
@@ -0,0 +1,84 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A partition of a set of positive integers (vertices) into disjoint
+ *  subsets, supporting union and find with path compression and union by
+ *  rank, so that a sequence of operations takes nearly constant amortized
+ *  time apiece.  Integers become members individually, via makeSet.
+ *  @author Roland Li
+ */
+final class UnionFind {
+
+    /** An empty partition with room for members up to N - 1. */
+    UnionFind(int n) {
+        _parent = new int[Math.max(n, 1)];
+        _rank = new byte[_parent.length];
+    }
+
+    /** Make V a member, in a set by itself.  Has no effect if V is already
+     *  a member. */
+    void makeSet(int v) {
+        if (v >= _parent.length) {
+            int n = Math.max(v + 1, 2 * _parent.length);
+            _parent = Arrays.copyOf(_parent, n);
+            _rank = Arrays.copyOf(_rank, n);
+        }
+        if (_parent[v] == 0) {
+            _parent[v] = v;
+            _rank[v] = 0;
+            _sets += 1;
+        }
+    }
+
+    /** Returns true iff V is a member. */
+    boolean contains(int v) {
+        return v > 0 && v < _parent.length && _parent[v] != 0;
+    }
+
+    /** Returns the representative of the set containing member V. */
+    int find(int v) {
+        int root = v;
+        while (_parent[root] != root) {
+            root = _parent[root];
+        }
+        while (_parent[v] != root) {
+            int next = _parent[v];
+            _parent[v] = root;
+            v = next;
+        }
+        return root;
+    }
+
+    /** Merge the sets containing members U and V. */
+    void union(int u, int v) {
+        int ru = find(u), rv = find(v);
+        if (ru == rv) {
+            return;
+        }
+        if (_rank[ru] < _rank[rv]) {
+            _parent[ru] = rv;
+        } else if (_rank[ru] > _rank[rv]) {
+            _parent[rv] = ru;
+        } else {
+            _parent[rv] = ru;
+            _rank[ru] += 1;
+        }
+        _sets -= 1;
+    }
+
+    /** Returns the number of sets. */
+    int sets() {
+        return _sets;
+    }
+
+    /** Parent of each member in its set's tree (itself for roots), or 0
+     *  for non-members. */
+    private int[] _parent;
+    /** Upper bound on the height of each root's tree. */
+    private byte[] _rank;
+    /** Number of sets. */
+    private int _sets;
+}
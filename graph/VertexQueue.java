@@ -0,0 +1,31 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** A priority queue of vertices, each queued with a key, from which the
+ *  vertex with the smallest key is removed first.  Putting a vertex that
+ *  is already queued changes its key.
+ *  @author Roland Li
+ */
+abstract class VertexQueue {
+
+    /** Returns true iff I am empty. */
+    abstract boolean isEmpty();
+
+    /** Returns the number of queued vertices. */
+    abstract int size();
+
+    /** Returns true iff V is queued. */
+    abstract boolean contains(int v);
+
+    /** Queue V with key KEY, or change its key to KEY if it is already
+     *  queued. */
+    abstract void put(int v, double key);
+
+    /** Remove and return a queued vertex with the smallest key.  Assumes
+     *  I am not empty. */
+    abstract int poll();
+
+    /** Remove all vertices. */
+    abstract void clear();
+}
@@ -0,0 +1,48 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/** A set of marked vertices that can be emptied in constant time.  Each
+ *  vertex carries the number of the epoch (generation) in which it was last
+ *  marked; a vertex is marked iff that is the current epoch, so that
+ *  clearing the set simply starts a new epoch.
+ *  @author Roland Li
+ */
+final class VisitStamps {
+
+    /** An empty set with room for vertices up to N - 1. */
+    VisitStamps(int n) {
+        _stamps = new int[Math.max(n, 1)];
+        _epoch = 1;
+    }
+
+    /** Returns true iff V is marked. */
+    boolean marked(int v) {
+        return v < _stamps.length && _stamps[v] == _epoch;
+    }
+
+    /** Mark V. */
+    void mark(int v) {
+        if (v >= _stamps.length) {
+            _stamps = Arrays.copyOf(_stamps,
+                                    Math.max(v + 1, 2 * _stamps.length));
+        }
+        _stamps[v] = _epoch;
+    }
+
+    /** Unmark all vertices. */
+    void clear() {
+        if (_epoch == Integer.MAX_VALUE) {
+            Arrays.fill(_stamps, 0);
+            _epoch = 0;
+        }
+        _epoch += 1;
+    }
+
+    /** Epoch in which each vertex was last marked, indexed by vertex. */
+    private int[] _stamps;
+    /** The current epoch. */
+    private int _epoch;
+}
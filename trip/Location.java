@@ -1,24 +1,23 @@
 package trip;
 
-import static java.lang.Math.sqrt;
-
-/** Represents a location on a map.
+/** Represents a location on a map.  A Location is a lightweight view of one
+ *  vertex of a map: its coordinates are kept by the map itself, in columns
+ *  indexed by vertex.
  *  @author P. N. Hilfinger
  */
 class Location {
 
-    /** A location identified by NAME, at coordinates (X, Y). */
-    Location(String name, double x, double y) {
+    /** A location identified by NAME, whose coordinates are those of
+     *  vertex V in MAP. */
+    Location(String name, Trip.RoadMap map, int v) {
         _name = name;
-        _x = x;
-        _y = y;
+        _map = map;
+        _vertex = v;
     }
 
     /** Return the distance between me and Y. */
     double dist(Location y) {
-        double dx = _x - y._x;
-        double dy = _y - y._y;
-        return sqrt(dx * dx + dy * dy);
+        return _map.dist(_vertex, y._vertex);
     }
 
     /** Returns the distance between locations X and Y. */
@@ -31,20 +30,10 @@ class Location {
         return _name;
     }
 
-    /** Returns my estimated distance from the origin. */
-    public double distance() {
-        return _dist;
-    }
-
-    /** Set distance() to W. */
-    public void setDistance(double w) {
-        _dist = w;
-    }
-
     /** The identifying name of this location. */
-    private String _name;
-    /** Coordinates of this location. */
-    private double _x, _y;
-    /** Estimated distance from starting point. */
-    private double _dist;
+    private final String _name;
+    /** The map holding my coordinates. */
+    private final Trip.RoadMap _map;
+    /** My vertex in _map. */
+    private final int _vertex;
 }
@@ -1,18 +1,25 @@
 package trip;
 
+import graph.ContractionHierarchy;
 import graph.DirectedGraph;
 import graph.LabeledGraph;
+import graph.Landmarks;
+import graph.PathCache;
+import graph.SearchWorkspace;
 import graph.SimpleShortestPaths;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 
+import static java.lang.Math.sqrt;
 import static trip.Main.error;
 
 /** Encapsulates a map containing sites, positions, and road distances between
@@ -73,11 +80,34 @@ class Trip {
             } else if (to == null) {
                 error("No location named %s", dests.get(i));
             }
+            int[] path = _routes.path(from, to);
+            ArrayList<Integer> segment = new ArrayList<>(path.length);
+            for (int v : path) {
+                segment.add(v);
+            }
+            step = reportSegment(step, from, segment);
+        }
+    }
+
+    /** Returns the vertices of a shortest route from vertex FROM to vertex
+     *  TO, starting with FROM.  Uses the contraction hierarchy for _map
+     *  (built on first use), unless disabled by setHierarchy. */
+    List<Integer> route(int from, int to) {
+        if (!_useHierarchy) {
+            if (_landmarks == null && _landmarkCount > 0) {
+                _landmarks = new RoadLandmarks();
+                _landmarks.preprocess(_landmarkCount,
+                                      Landmarks.Strategy.AVOID);
+            }
             TripPlan plan = new TripPlan(from, to);
             plan.setPaths();
-            List<Integer> segment = plan.pathTo(to);
-            step = reportSegment(step, from, segment);
+            return plan.pathTo(to);
         }
+        if (_hierarchy == null) {
+            _hierarchy = new RoadHierarchy();
+            _hierarchy.preprocess();
+        }
+        return _hierarchy.path(from, to);
     }
 
     /** Print out a written description of the location sequence SEGMENT,
@@ -121,12 +151,40 @@ class Trip {
         return seq + 1;
     }
 
+    /** Plan subsequent trips using a contraction hierarchy of the map iff
+     *  ON (the default); otherwise, run a fresh A* search for each
+     *  segment. */
+    void setHierarchy(boolean on) {
+        _useHierarchy = on;
+        _routes.invalidate();
+    }
+
+    /** When not using a contraction hierarchy, guide the A* searches for
+     *  subsequent trips with K landmarks (chosen by the avoid strategy) in
+     *  addition to straight-line distance.  K = 0 (the default) uses
+     *  straight-line distance alone. */
+    void setLandmarks(int k) {
+        if (k != _landmarkCount) {
+            _landmarkCount = k;
+            _landmarks = null;
+            _routes.invalidate();
+        }
+    }
+
+    /** When not using a contraction hierarchy, plan subsequent trips by
+     *  searching from both ends of each segment at once iff ON (by
+     *  default, searches run forward only). */
+    void setBidirectional(boolean on) {
+        _bidirectional = on;
+        _routes.invalidate();
+    }
+
     /** Add a new location named NAME at (X, Y). */
     private void addLocation(String name, double x, double y) {
         if (_sites.containsKey(name)) {
             error("multiple entries for %s", name);
         }
-        int v = _map.add(new Location(name, x, y));
+        int v = _map.add(name, x, y);
         _sites.put(name, v);
     }
 
@@ -152,22 +210,82 @@ class Trip {
     private RoadMap _map = new RoadMap();
     /** Mapping of Location names to corresponding map vertices. */
     private HashMap<String, Integer> _sites = new HashMap<>();
+    /** Routes already found, by starting and ending vertex. */
+    private RouteCache _routes = new RouteCache();
+    /** True iff trips are planned with _hierarchy. */
+    private boolean _useHierarchy = true;
+    /** Contraction hierarchy for _map, or null if not yet built. */
+    private RoadHierarchy _hierarchy;
+    /** True iff trips are planned by bidirectional search. */
+    private boolean _bidirectional;
+    /** Number of landmarks guiding A* searches. */
+    private int _landmarkCount;
+    /** Landmark tables for _map, or null if not used or not yet built. */
+    private RoadLandmarks _landmarks;
+    /** Working storage shared by successive TripPlans. */
+    private SearchWorkspace _workspace = new SearchWorkspace();
 
     /** A labeled directed graph of Locations whose edges are labeled by
-     *  Roads. */
-    private static class RoadMap extends LabeledGraph<Location, Road> {
+     *  Roads.  The coordinates of locations are kept here in dense columns
+     *  indexed by vertex, so that searches can read them without going
+     *  through Location objects. */
+    static class RoadMap extends LabeledGraph<Location, Road> {
         /** An empty RoadMap. */
         RoadMap() {
             super(new DirectedGraph());
+            _xs = new double[INIT_COLUMN_SIZE];
+            _ys = new double[INIT_COLUMN_SIZE];
+        }
+
+        /** Add and return a new vertex labeled with a Location named NAME
+         *  at (X, Y). */
+        int add(String name, double x, double y) {
+            int v = add();
+            if (v >= _xs.length) {
+                int n = Math.max(v + 1, 2 * _xs.length);
+                _xs = Arrays.copyOf(_xs, n);
+                _ys = Arrays.copyOf(_ys, n);
+            }
+            _xs[v] = x;
+            _ys[v] = y;
+            setLabel(v, new Location(name, this, v));
+            return v;
         }
+
+        /** Returns the x coordinate of vertex V. */
+        double x(int v) {
+            return _xs[v];
+        }
+
+        /** Returns the y coordinate of vertex V. */
+        double y(int v) {
+            return _ys[v];
+        }
+
+        /** Returns the straight-line distance between vertices U and V. */
+        double dist(int u, int v) {
+            double dx = _xs[u] - _xs[v];
+            double dy = _ys[u] - _ys[v];
+            return sqrt(dx * dx + dy * dy);
+        }
+
+        /** Initial length of the coordinate columns. */
+        private static final int INIT_COLUMN_SIZE = 16;
+
+        /** Coordinates of my vertices, indexed by vertex number. */
+        private double[] _xs, _ys;
     }
 
     /** Paths in _map from a given location. */
     private class TripPlan extends SimpleShortestPaths {
-        /** A plan for travel from START to DEST according to _map. */
+        /** A plan for travel from START to DEST according to _map, kept
+         *  in _workspace. */
         TripPlan(int start, int dest) {
-            super(_map, start, dest);
-            _finalLocation = _map.getLabel(dest);
+            super(_map, start, dest, _workspace);
+            _startX = _map.x(start);
+            _startY = _map.y(start);
+            _destX = _map.x(dest);
+            _destY = _map.y(dest);
         }
 
         @Override
@@ -177,14 +295,74 @@ class Trip {
 
         @Override
         protected double estimatedDistance(int v) {
-            return _finalLocation.dist(_map.getLabel(v));
+            double dx = _map.x(v) - _destX;
+            double dy = _map.y(v) - _destY;
+            double d = sqrt(dx * dx + dy * dy);
+            if (_landmarks != null) {
+                d = Math.max(d, _landmarks.lowerBound(v, getDest()));
+            }
+            return d;
         }
 
-        /** Location of the destination. */
-        private final Location _finalLocation;
+        @Override
+        protected double estimatedDistanceFrom(int v) {
+            double dx = _map.x(v) - _startX;
+            double dy = _map.y(v) - _startY;
+            double d = sqrt(dx * dx + dy * dy);
+            if (_landmarks != null) {
+                d = Math.max(d, _landmarks.lowerBound(getSource(), v));
+            }
+            return d;
+        }
+
+        @Override
+        protected boolean bidirectional() {
+            return _bidirectional;
+        }
+
+        /** Coordinates of the start. */
+        private final double _startX, _startY;
+        /** Coordinates of the destination. */
+        private final double _destX, _destY;
+    }
+
+    /** A cache of the results of route. */
+    private class RouteCache extends PathCache {
+        /** An empty cache of routes in _map. */
+        RouteCache() {
+            super(_map);
+        }
+
+        @Override
+        protected List<Integer> findPath(int from, int to) {
+            return route(from, to);
+        }
+    }
 
+    /** A contraction hierarchy for _map, weighted by road length. */
+    private class RoadHierarchy extends ContractionHierarchy {
+        /** A hierarchy for _map, which must be preprocessed before use. */
+        RoadHierarchy() {
+            super(_map);
+        }
 
+        @Override
+        protected double getWeight(int u, int v) {
+            return _map.getLabel(u, v).length();
+        }
+    }
 
+    /** Landmark tables for _map, weighted by road length. */
+    private class RoadLandmarks extends Landmarks {
+        /** Tables for _map, which must be preprocessed before use. */
+        RoadLandmarks() {
+            super(_map);
+        }
+
+        @Override
+        protected double getWeight(int u, int v) {
+            return _map.getLabel(u, v).length();
+        }
     }
 
 }
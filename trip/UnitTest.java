@@ -5,6 +5,15 @@ package trip;
  * may not be part of your trip package per se (that is, it must be
  * possible to remove them and still have your package work). */
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import org.junit.Test;
 import ucb.junit.textui;
 import static org.junit.Assert.*;
@@ -21,4 +30,88 @@ public class UnitTest {
     public void dummyTest() {
     }
 
+    @Test
+    public void roadMapCoordinatesTest() {
+        Trip.RoadMap map = new Trip.RoadMap();
+        for (int i = 1; i <= 40; i += 1) {
+            assertEquals(i, map.add("L" + i, i, 2 * i));
+        }
+        assertEquals(33.0, map.x(33), 0.0);
+        assertEquals(66.0, map.y(33), 0.0);
+        assertEquals(Math.sqrt(45.0), map.dist(1, 4), 1e-9);
+        Location a = map.getLabel(3), b = map.getLabel(6);
+        assertEquals("L3", a.toString());
+        assertEquals(map.dist(3, 6), a.dist(b), 0.0);
+    }
+
+    @Test
+    public void planningModesTest() throws IOException {
+        File map = gridMap(8, 8);
+        List<String> dests =
+            Arrays.asList("G0_0", "G7_7", "G2_6", "G6_1", "G3_3", "G0_0");
+        try {
+            String expected = plan(map, dests, true, 0, false);
+            assertTrue(expected.contains("to G7_7."));
+            assertEquals(expected, plan(map, dests, false, 0, false));
+            assertEquals(expected, plan(map, dests, false, 4, false));
+            assertEquals(expected, plan(map, dests, false, 0, true));
+            assertEquals(expected, plan(map, dests, false, 4, true));
+        } finally {
+            map.delete();
+        }
+    }
+
+    /** Returns the report of a trip through DESTS on the map in MAP,
+     *  planned with a contraction hierarchy iff HIERARCHY, and otherwise
+     *  by A* search guided by LANDMARKS landmarks, searching from both
+     *  ends iff BOTH. */
+    private static String plan(File map, List<String> dests,
+                               boolean hierarchy, int landmarks,
+                               boolean both) {
+        Trip trip = new Trip();
+        trip.readMap(map.getPath());
+        trip.setHierarchy(hierarchy);
+        trip.setLandmarks(landmarks);
+        trip.setBidirectional(both);
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(report));
+        try {
+            trip.makeTrip(dests);
+        } finally {
+            System.setOut(stdout);
+        }
+        return report.toString();
+    }
+
+    /** Returns a temporary map file containing a grid of ROWS x COLS
+     *  locations one unit apart, with each named road joining adjacent
+     *  locations given a pseudo-random length between 1 and 2. */
+    private static File gridMap(int rows, int cols) throws IOException {
+        File file = File.createTempFile("grid", ".map");
+        Random r = new Random(61);
+        try (PrintWriter out = new PrintWriter(file)) {
+            for (int i = 0; i < rows; i += 1) {
+                for (int j = 0; j < cols; j += 1) {
+                    out.printf("L G%d_%d %d %d%n", i, j, j, -i);
+                }
+            }
+            for (int i = 0; i < rows; i += 1) {
+                for (int j = 0; j < cols; j += 1) {
+                    if (j + 1 < cols) {
+                        out.printf("R G%d_%d H%d_%d %.4f WE G%d_%d%n",
+                                   i, j, i, j, 1.0 + r.nextDouble(),
+                                   i, j + 1);
+                    }
+                    if (i + 1 < rows) {
+                        out.printf("R G%d_%d V%d_%d %.4f NS G%d_%d%n",
+                                   i, j, i, j, 1.0 + r.nextDouble(),
+                                   i + 1, j);
+                    }
+                }
+            }
+        }
+        return file;
+    }
+
 }